@@ -0,0 +1,192 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.ToLongFunction;
+
+import javax.annotation.Nullable;
+
+/**
+ * A thread safe cache with a maximum count of entries and an optional maximum weight that can be shared between compiles.
+ * If the count of entries is reached then a quarter of the entries is removed. If the weight is reached then random entries
+ * are removed until the new value fit.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+final class BoundedCache<K, V> {
+
+    private final ConcurrentHashMap<K, V> map = new ConcurrentHashMap<>();
+
+    private final int                     maxSize;
+
+    private final ToLongFunction<V>       weigher;
+
+    private final AtomicLong              weight = new AtomicLong();
+
+    private volatile long                 maxWeight;
+
+    /**
+     * Create a new cache.
+     * 
+     * @param maxSize
+     *            the maximum count of entries
+     */
+    BoundedCache( int maxSize ) {
+        this( maxSize, Long.MAX_VALUE, null );
+    }
+
+    /**
+     * Create a new cache with a weight limit.
+     * 
+     * @param maxSize
+     *            the maximum count of entries
+     * @param maxWeight
+     *            the maximum sum of the weights of all values
+     * @param weigher
+     *            calculate the weight of a value, the weight of a value must not change
+     */
+    BoundedCache( int maxSize, long maxWeight, ToLongFunction<V> weigher ) {
+        this.maxSize = maxSize;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Set the maximum sum of the weights. Values are removed if needed.
+     * 
+     * @param maxWeight
+     *            the new limit
+     */
+    void setMaxWeight( long maxWeight ) {
+        this.maxWeight = maxWeight;
+        evict( 0, maxWeight );
+    }
+
+    /**
+     * Get a cached value.
+     * 
+     * @param key
+     *            the key
+     * @return the value or null if not cached
+     */
+    @Nullable
+    V get( K key ) {
+        return map.get( key );
+    }
+
+    /**
+     * Add a value to the cache.
+     * 
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    void put( K key, V value ) {
+        long w = weight( value );
+        long maxWeight = this.maxWeight;
+        if( w > maxWeight ) {
+            return; // never fit
+        }
+        int size = map.size();
+        if( size >= maxSize ) {
+            evict( Math.max( 1, size / 4 ), Long.MAX_VALUE );
+        }
+        if( weight.get() + w > maxWeight ) {
+            evict( 0, maxWeight - w );
+        }
+        weight.addAndGet( w );
+        V old = map.put( key, value );
+        if( old != null ) {
+            weight.addAndGet( -weight( old ) );
+        }
+    }
+
+    /**
+     * Get the weight of a value.
+     * 
+     * @param value
+     *            the value
+     * @return the weight
+     */
+    private long weight( V value ) {
+        return weigher == null ? 0 : weigher.applyAsLong( value );
+    }
+
+    /**
+     * Remove entries until a count of entries is removed and the weight is not larger as the target.
+     * 
+     * @param count
+     *            the minimum count of entries to remove
+     * @param targetWeight
+     *            the maximum weight after eviction
+     */
+    private void evict( int count, long targetWeight ) {
+        for( Iterator<K> it = map.keySet().iterator(); it.hasNext() && (count > 0 || weight.get() > targetWeight); count-- ) {
+            V value = map.remove( it.next() );
+            if( value != null ) {
+                weight.addAndGet( -weight( value ) );
+            }
+        }
+    }
+
+    /**
+     * Remove all entries.
+     */
+    void clear() {
+        for( K key : map.keySet() ) {
+            V value = map.remove( key );
+            if( value != null ) {
+                weight.addAndGet( -weight( value ) );
+            }
+        }
+    }
+
+    /**
+     * Remove all entries that match the filter.
+     * 
+     * @param filter
+     *            return true for entries that should be removed
+     */
+    void removeIf( BiPredicate<K, V> filter ) {
+        for( Entry<K, V> entry : map.entrySet() ) {
+            K key = entry.getKey();
+            V value = entry.getValue();
+            if( filter.test( key, value ) && map.remove( key, value ) ) {
+                weight.addAndGet( -weight( value ) );
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A ReaderFactory that caches the decoded text of imports and the bytes of other resources between compiles. The
+ * reading is delegated to another ReaderFactory. A cached entry is validated with the size and modification time for
+ * file URLs and with a version token of the caller for other URLs. URLs without a version token are not cached. All
+ * entries are validated together and not more often as the validation interval.
+ * <p>
+ * Typical usage: create one instance and use it for all compiles.
+ */
+public class CachingReaderFactory extends ReaderFactory {
+
+    private final ReaderFactory               delegate;
+
+    private final Function<URL, String>       versions;
+
+    private final BoundedCache<String, Entry> cache          = new BoundedCache<>( Integer.MAX_VALUE, 64 * 1024 * 1024, Entry::weight );
+
+    private final AtomicLong                  nextValidation = new AtomicLong();
+
+    private volatile long                     interval       = 2000;
+
+    /**
+     * Create a caching factory for files that read with the default ReaderFactory.
+     */
+    public CachingReaderFactory() {
+        this( new ReaderFactory(), null );
+    }
+
+    /**
+     * Create a caching factory for files.
+     * 
+     * @param delegate
+     *            the factory that read the content
+     */
+    public CachingReaderFactory( ReaderFactory delegate ) {
+        this( delegate, null );
+    }
+
+    /**
+     * Create a caching factory.
+     * 
+     * @param delegate
+     *            the factory that read the content
+     * @param versions
+     *            return a token that change if the content of a URL change or null if the content should not be cached,
+     *            is used for all URLs that are not files, can be null
+     */
+    public CachingReaderFactory( ReaderFactory delegate, Function<URL, String> versions ) {
+        this.delegate = delegate;
+        this.versions = versions;
+    }
+
+    /**
+     * Set the minimum time between two validations of the cached entries. The default is 2 seconds. With 0 the entries
+     * are validated on every access.
+     * 
+     * @param millis
+     *            the interval in milliseconds
+     */
+    public void setValidationInterval( long millis ) {
+        this.interval = millis;
+        nextValidation.set( 0 );
+    }
+
+    /**
+     * Set the memory limit of the cache. The default is 64 MB.
+     * 
+     * @param bytes
+     *            the limit in bytes
+     */
+    public void setMaxSize( long bytes ) {
+        cache.setMaxWeight( bytes );
+    }
+
+    /**
+     * Remove all cached entries.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream openStream( URL url ) throws IOException {
+        String key = key( 'B', url );
+        Entry entry = get( key );
+        if( entry == null ) {
+            String stamp = getStamp( url );
+            if( stamp == null ) {
+                return delegate.openStream( url );
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try( InputStream input = delegate.openStream( url ) ) {
+                byte[] buffer = new byte[8192];
+                int count;
+                while( (count = input.read( buffer )) > 0 ) {
+                    out.write( buffer, 0, count );
+                }
+            }
+            entry = new Entry( url, stamp, out.toByteArray() );
+            cache.put( key, entry );
+        }
+        return new ByteArrayInputStream( (byte[])entry.content );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Reader create( URL url ) throws IOException {
+        String key = key( 'T', url );
+        Entry entry = get( key );
+        if( entry == null ) {
+            String stamp = getStamp( url );
+            if( stamp == null ) {
+                return delegate.create( url );
+            }
+            StringBuilder builder = new StringBuilder();
+            try( Reader reader = delegate.create( url ) ) {
+                char[] buffer = new char[8192];
+                int count;
+                while( (count = reader.read( buffer )) > 0 ) {
+                    builder.append( buffer, 0, count );
+                }
+            }
+            entry = new Entry( url, stamp, builder.toString() );
+            cache.put( key, entry );
+        }
+        return new StringReader( (String)entry.content );
+    }
+
+    /**
+     * Get a stamp of the current content of the URL. For files it is the location, size and modification time. For
+     * other URLs it is the location and the version token of the caller.
+     * 
+     * @param url
+     *            the url, not null
+     * @return the stamp or null if the content should not be cached
+     */
+    @Override
+    public String getStamp( URL url ) {
+        if( "file".equals( url.getProtocol() ) ) {
+            try {
+                File file = new File( url.toURI() );
+                if( file.isFile() ) {
+                    return url + "|" + file.length() + "|" + file.lastModified();
+                }
+            } catch( Exception ex ) {
+                // not a valid file URL
+            }
+            return null;
+        }
+        String version = versions == null ? null : versions.apply( url );
+        return version == null ? null : url + "|" + version;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return delegate.isThreadSafe();
+    }
+
+    /**
+     * Get a cached entry. If the validation interval is elapsed then all entries are validated first. Between the
+     * validations the entries are used without any check.
+     * 
+     * @param key
+     *            the key of the entry
+     * @return the entry or null if not cached
+     */
+    private Entry get( String key ) {
+        long now = System.currentTimeMillis();
+        long next = nextValidation.get();
+        if( now >= next && nextValidation.compareAndSet( next, now + interval ) ) {
+            cache.removeIf( ( k, entry ) -> !entry.stamp.equals( getStamp( entry.url ) ) );
+        }
+        return cache.get( key );
+    }
+
+    /**
+     * Get the cache key of a URL.
+     * 
+     * @param kind
+     *            'T' for text, 'B' for bytes
+     * @param url
+     *            the URL
+     * @return the key
+     */
+    private static String key( char kind, URL url ) {
+        String str;
+        try {
+            str = url.toURI().normalize().toString();
+        } catch( Exception ex ) {
+            str = url.toString();
+        }
+        return kind + str;
+    }
+
+    /**
+     * A cached content with the stamp at reading time.
+     */
+    private static class Entry {
+
+        private final URL    url;
+
+        private final String stamp;
+
+        /** String or byte[] */
+        private final Object content;
+
+        /**
+         * Create a new entry.
+         * 
+         * @param url
+         *            the URL of the content
+         * @param stamp
+         *            the stamp before the content was read
+         * @param content
+         *            the text or the bytes
+         */
+        private Entry( URL url, String stamp, Object content ) {
+            this.url = url;
+            this.stamp = stamp;
+            this.content = content;
+        }
+
+        /**
+         * Get the memory of the content.
+         * 
+         * @return the size in bytes
+         */
+        private long weight() {
+            return 64 + (content instanceof String ? 2L * ((String)content).length() : ((byte[])content).length);
+        }
+    }
+}
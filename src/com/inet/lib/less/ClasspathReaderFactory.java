@@ -0,0 +1,350 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * A ReaderFactory for less files and resources in jar files of the classpath. The jar files are kept open and the
+ * inflated entries are cached, so that imports of bundled libraries are not read again on every compile. If the size or
+ * the modification time of a jar file changes then the jar file is opened again and its cached entries are removed. The
+ * old jar file is closed after the running reads are finished. All other URLs are read like in the default
+ * ReaderFactory.
+ * <p>
+ * Typical usage:
+ * 
+ * <pre>
+ * URL url = getClass().getClassLoader().getResource( "styles/main.less" );
+ * String css = Less.compile( url, lessData, false, new ClasspathReaderFactory() );
+ * </pre>
+ */
+public class ClasspathReaderFactory extends ReaderFactory implements Closeable {
+
+    private final ConcurrentHashMap<String, OpenJar> jars    = new ConcurrentHashMap<>();
+
+    private final BoundedCache<String, ByteBuffer>   entries = new BoundedCache<>( Integer.MAX_VALUE, 32 * 1024 * 1024, buffer -> 64 + buffer.capacity() );
+
+    /**
+     * Set the memory limit for the cached entries. The default is 32 MB.
+     * 
+     * @param bytes
+     *            the limit in bytes
+     */
+    public void setMaxSize( long bytes ) {
+        entries.setMaxWeight( bytes );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream openStream( URL url ) throws IOException {
+        if( !"jar".equals( url.getProtocol() ) ) {
+            return super.openStream( url );
+        }
+        String key = url.toString();
+        int idx = key.indexOf( "!/" );
+        if( idx < 0 || !key.startsWith( "jar:file:" ) ) {
+            return super.openStream( url ); // nested jar or other container
+        }
+        OpenJar jar = getJar( key.substring( 4, idx ) );
+        try {
+            ByteBuffer buffer = entries.get( key );
+            if( buffer == null ) {
+                String name = URLDecoder.decode( key.substring( idx + 2 ).replace( "+", "%2B" ), "UTF-8" );
+                JarEntry entry = jar.jar.getJarEntry( name );
+                if( entry == null || entry.isDirectory() ) {
+                    throw new FileNotFoundException( key );
+                }
+                buffer = read( jar.jar, entry );
+                if( !jar.replaced ) {
+                    entries.put( key, buffer );
+                    if( jar.replaced ) {
+                        // the jar was replaced in the meantime, the removing of its entries can have missed this one
+                        ByteBuffer stale = buffer;
+                        entries.removeIf( ( k, b ) -> b == stale );
+                    }
+                }
+            }
+            return new ByteBufferInputStream( buffer.duplicate() );
+        } finally {
+            jar.release();
+        }
+    }
+
+    /**
+     * Get the stamp of entries in jar files. It is the location of the entry and the size and modification time of the
+     * jar file.
+     * 
+     * @param url
+     *            the url, not null
+     * @return the stamp or null if the content should not be cached
+     */
+    @Override
+    public String getStamp( URL url ) {
+        String spec = url.toString();
+        int idx = spec.indexOf( "!/" );
+        if( idx < 0 || !spec.startsWith( "jar:file:" ) ) {
+            return null;
+        }
+        try {
+            File file = new File( new URL( spec.substring( 4, idx ) ).toURI() );
+            return spec + "|" + file.length() + "|" + file.lastModified();
+        } catch( Exception ex ) {
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Close all jar files and remove the cached entries.
+     * 
+     * @throws IOException
+     *             If any I/O error occur on closing.
+     */
+    @Override
+    public void close() throws IOException {
+        entries.clear();
+        IOException exception = null;
+        for( String key : jars.keySet() ) {
+            OpenJar jar = jars.remove( key );
+            if( jar != null ) {
+                jar.replaced = true;
+                try {
+                    jar.release();
+                } catch( IOException ex ) {
+                    exception = ex;
+                }
+            }
+        }
+        if( exception != null ) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Get the open jar file for a read. If the jar file was changed since it was opened then it is opened again and the
+     * cached entries of the jar file are removed. The caller must release the returned jar file.
+     * 
+     * @param fileUrl
+     *            the file URL of the jar file
+     * @return the jar file
+     * @throws IOException
+     *             If any I/O error occur on opening.
+     */
+    private OpenJar getJar( String fileUrl ) throws IOException {
+        File file;
+        try {
+            file = new File( new URL( fileUrl ).toURI() );
+        } catch( Exception ex ) {
+            throw new IOException( "Invalid jar URL: " + fileUrl, ex );
+        }
+        long length = file.length();
+        long modified = file.lastModified();
+        OpenJar jar = jars.get( fileUrl );
+        if( jar != null && jar.length == length && jar.modified == modified ) {
+            if( jar.acquire() ) {
+                return jar;
+            }
+            return getJar( fileUrl ); // was replaced or closed in the meantime
+        }
+        OpenJar newJar = new OpenJar( new JarFile( file ), length, modified );
+        newJar.acquire();
+        if( jar == null ? jars.putIfAbsent( fileUrl, newJar ) != null : !jars.replace( fileUrl, jar, newJar ) ) {
+            newJar.jar.close(); // another thread was faster
+            return getJar( fileUrl );
+        }
+        if( jar != null ) {
+            jar.replaced = true;
+            String prefix = "jar:" + fileUrl + "!/";
+            entries.removeIf( ( key, buffer ) -> key.startsWith( prefix ) );
+            jar.release();
+        }
+        return newJar;
+    }
+
+    /**
+     * Inflate a jar entry.
+     * 
+     * @param jar
+     *            the jar file
+     * @param entry
+     *            the entry
+     * @return the read only content
+     * @throws IOException
+     *             If any I/O error occur on reading.
+     */
+    private static ByteBuffer read( JarFile jar, JarEntry entry ) throws IOException {
+        long size = entry.getSize();
+        byte[] data = new byte[size >= 0 && size < Integer.MAX_VALUE ? (int)size : 8192];
+        int length = 0;
+        try( InputStream input = jar.getInputStream( entry ) ) {
+            int count;
+            while( (count = input.read( data, length, data.length - length )) > 0 ) {
+                length += count;
+                if( length == data.length ) {
+                    int next = input.read();
+                    if( next < 0 ) {
+                        break;
+                    }
+                    data = Arrays.copyOf( data, data.length * 2 );
+                    data[length++] = (byte)next;
+                }
+            }
+        }
+        return ByteBuffer.wrap( data, 0, length ).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * An open jar file with the size and modification time of the file at opening. The jar file is closed if the last
+     * user release it. The map of the open jar files is also a user.
+     */
+    private static class OpenJar {
+
+        private final JarFile       jar;
+
+        private final long          length;
+
+        private final long          modified;
+
+        private final AtomicInteger users = new AtomicInteger( 1 );
+
+        /** true, if the jar file was removed from the map of open jar files */
+        private volatile boolean    replaced;
+
+        /**
+         * Create a new instance.
+         * 
+         * @param jar
+         *            the open jar file
+         * @param length
+         *            the size of the file
+         * @param modified
+         *            the modification time of the file
+         */
+        private OpenJar( JarFile jar, long length, long modified ) {
+            this.jar = jar;
+            this.length = length;
+            this.modified = modified;
+        }
+
+        /**
+         * Register a user of the jar file.
+         * 
+         * @return false, if the jar file is already closed
+         */
+        private boolean acquire() {
+            for( ;; ) {
+                int count = users.get();
+                if( count == 0 ) {
+                    return false;
+                }
+                if( users.compareAndSet( count, count + 1 ) ) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Unregister a user and close the jar file if it was the last user.
+         * 
+         * @throws IOException
+         *             If any I/O error occur on closing.
+         */
+        private void release() throws IOException {
+            if( users.decrementAndGet() == 0 ) {
+                jar.close();
+            }
+        }
+    }
+
+    /**
+     * An InputStream over a ByteBuffer without copying the content.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        /**
+         * Create a new instance.
+         * 
+         * @param buffer
+         *            the content, the position is changed
+         */
+        private ByteBufferInputStream( ByteBuffer buffer ) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read( byte[] b, int off, int len ) {
+            if( !buffer.hasRemaining() ) {
+                return len == 0 ? 0 : -1;
+            }
+            len = Math.min( len, buffer.remaining() );
+            buffer.get( b, off, len );
+            return len;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
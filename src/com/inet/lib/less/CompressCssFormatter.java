@@ -37,7 +37,33 @@ class CompressCssFormatter extends CssFormatter {
      * Create an instance.
      */
     CompressCssFormatter() {
-        getFormat().setMinimumIntegerDigits( 0 );
+        // nothing
+    }
+
+    /**
+     * Create a block instance.
+     *
+     * @param parent the formatter that start the block
+     */
+    CompressCssFormatter( CssFormatter parent ) {
+        super( parent );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    CssFormatter newBlock() {
+        return new CompressCssFormatter( this );
+    }
+
+    /**
+     * Omit the leading zero.
+     * {@inheritDoc}
+     */
+    @Override
+    boolean isLeadingZero() {
+        return false;
     }
 
     /**
@@ -150,9 +176,8 @@ CssFormatter startBlock( String[] selectors ) {
         checkSemicolon();
         CssFormatter formatter = super.startBlock( selectors );
         if( formatter != this ) { // two rules with same selector was merged
-            StringBuilder output = formatter.getOutput();
-            int length = output.length();
-            if( length > 0 && output.charAt( length-1 ) != '}' ) {
+            int last = formatter.lastContentChar();
+            if( last >= 0 && last != '}' ) {
                 // the previous rule of the same selector ends with a property
                 formatter.semicolon();
             }
@@ -164,9 +189,9 @@ CssFormatter startBlock( String[] selectors ) {
      * {@inheritDoc}
      */
     @Override
-    void appendProperty( String name, Expression value ) {
+    void appendProperty( String name, PlaceHolderTemplate nameTemplate, Expression value ) {
         checkSemicolon();
-        super.appendProperty( name, value );
+        super.appendProperty( name, nameTemplate, value );
     }
 
     /**
@@ -60,6 +60,15 @@ public final int getType() {
         return CSS_AT_RULE;
     }
 
+    /**
+     * If this rule is written in the header of the CSS output.
+     * 
+     * @return true, for @charset and @import
+     */
+    boolean isHeader() {
+        return css.startsWith( "@charset" ) || css.startsWith( "@import" );
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -38,6 +38,7 @@
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.FutureTask;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -45,7 +46,7 @@
 /**
  * A formatter for the CSS output. Hold some formating states.
  */
-public class CssFormatter implements Cloneable {
+public class CssFormatter {
 
     /**
      * The scope of a single stack element.
@@ -92,6 +93,8 @@ Expression getVariable( String name ) {
     private static class SharedState {
         private final StringBuilderPool                      pool             = new StringBuilderPool();
 
+        private CssOutputBuffer                              buffer           = new CssOutputBuffer( new StringBuilder() );
+
         private URL                                          baseURL;
 
         private final ArrayList<Scope>                       stack = new ArrayList<>();
@@ -111,33 +114,53 @@ private static class SharedState {
         private int                                          importantCount;
 
         private LessExtendMap                                lessExtends = new LessExtendMap();
-    }
 
-    private final SharedState               state = new SharedState();
+        private final ArrayDeque<EvaluationResult>           evaluationResults = new ArrayDeque<>();
+
+        private final ArrayDeque<StringBuilder>              outputs          = new ArrayDeque<>();
+
+        private final DecimalFormat                          decFormat        = new DecimalFormat( "#.########", DecimalFormatSymbols.getInstance( Locale.ENGLISH ) );
 
-    private LessExtendMap                   lessExtends = state.lessExtends;
+        private ReaderFactory                                readerFactory;
 
-    private ReaderFactory                   readerFactory;
+        private Map<String, String>                          options;
 
-    private Map<String, String>             options;
+        /** 0 - "off", 1 - "local", 2 - "all" */
+        private int                                          rewriteUrl;
+
+        /** pending reads of data-uri content */
+        private HashMap<String, FutureTask<byte[]>>          prefetches;
+
+        /** sizes of images without a file stamp */
+        private HashMap<String, double[]>                    imageSizes;
+
+        /** units that are not registered in {@link Units} */
+        private ArrayList<String>                            unknownUnits;
+    }
 
-    /** 0 - "off", 1 - "local", 2 - "all" */
-    private int                             rewriteUrl;
+    private final SharedState               state;
+
+    private LessExtendMap                   lessExtends;
 
     private CssOutput                       currentOutput;
 
+    /** the output with the braces of the current block */
+    private CssOutput                       blockOutput;
+
+    /** the output that receive the written content if the output is the shared buffer */
+    private CssOutput                       contentOutput;
+
     private final static char[]             DIGITS    = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
 
-    private final ArrayDeque<StringBuilder> outputs   = new ArrayDeque<>();
+    private final static String             SPACES    = "                                ";
 
     private StringBuilder                   output;
 
-    private StringBuilder                   insets    = new StringBuilder();
+    /** count of spaces of the insets */
+    private int                             insets;
 
     private boolean                         inlineMode;
 
-    private final DecimalFormat             decFormat = new DecimalFormat( "#.########", DecimalFormatSymbols.getInstance( Locale.ENGLISH ) );
-
     private int                             blockDeep;
 
     private boolean                         isGuard;
@@ -150,8 +173,39 @@ private static class SharedState {
      * Create a initial instance.
      */
     CssFormatter() {
+        state = new SharedState();
+        lessExtends = state.lessExtends;
+        currentOutput = new CssPlainOutput();
         state.header = copy( null );
-        state.results.add( currentOutput = new CssPlainOutput( state.header.output ) ); // header
+    }
+
+    /**
+     * Create a lightweight formatter for a single block. It references the shared state of the parent.
+     *
+     * @param parent
+     *            the formatter that start the block
+     */
+    CssFormatter( CssFormatter parent ) {
+        state = parent.state;
+        lessExtends = parent.lessExtends;
+        currentOutput = parent.currentOutput;
+        blockOutput = parent.blockOutput;
+        contentOutput = parent.contentOutput;
+        insets = parent.insets;
+        inlineMode = parent.inlineMode;
+        blockDeep = parent.blockDeep;
+        isGuard = parent.isGuard;
+        guardDefault = parent.guardDefault;
+        wasDefaultFunction = parent.wasDefaultFunction;
+    }
+
+    /**
+     * Create a new formatter instance of the same type for a block. Subclasses must override it.
+     *
+     * @return the new instance
+     */
+    CssFormatter newBlock() {
+        return new CssFormatter( this );
     }
 
     /**
@@ -160,19 +214,11 @@ private static class SharedState {
      * @param output
      *            optional target
      * @return a new formatter
-     * @throws LessException
-     *             if any error occur.
      */
     private CssFormatter copy( @Nullable StringBuilder output ) {
-        try {
-            CssFormatter formatter = (CssFormatter)clone();
-            formatter.output = output == null ? state.pool.get() : output;
-            formatter.insets = state.pool.get();
-            formatter.insets.append( insets );
-            return formatter;
-        } catch( CloneNotSupportedException ex ) {
-            throw new LessException( ex );
-        }
+        CssFormatter formatter = newBlock();
+        formatter.output = output == null ? state.pool.get() : output;
+        return formatter;
     }
 
     /**
@@ -190,39 +236,81 @@ private CssFormatter copy( @Nullable StringBuilder output ) {
      *            some optional options, see constants for details
      */
     void format( LessParser parser, URL baseURL, ReaderFactory readerFactory, StringBuilder target,  @Nonnull Map<String, String> options ) {
+        final CssOutputBuffer buffer = state.buffer = new CssOutputBuffer( target );
         state.baseURL = baseURL;
-        this.readerFactory = readerFactory;
-        this.options = options;
-        this.rewriteUrl = parseRewriteUrl();
-        addVariables( parser.getVariables() );
-        state.isReference = false;
-
-        for( Formattable rule : parser.getRules() ) {
-            rule.prepare( this );
-        }
-
-        for( Formattable rule : parser.getRules() ) {
-            switch( rule.getType() ) {
-                case Formattable.REFERENCE_INFO:
-                    state.isReference = ((ReferenceInfo)rule).isReference();
-                    continue;
-                case Formattable.MIXIN:
-                    ((Mixin)rule).appendSubRules( null, this );
-                    break;
-                case Formattable.CSS_AT_RULE:
-                    if( state.isReference ) {
-                        continue;
-                    }
-                    //$FALL-THROUGH$
-                default:
-                    rule.appendTo( this );
+        state.readerFactory = readerFactory;
+        state.options = options;
+        state.rewriteUrl = parseRewriteUrl();
+        state.prefetches = UrlUtils.prefetch( this, parser.getDataUris() );
+        try {
+            addVariables( parser.getVariables() );
+            state.isReference = false;
+
+            for( Formattable rule : parser.getRules() ) {
+                rule.prepare( this );
             }
-        }
-        removeVariables( parser.getVariables() );
 
-        output = target;
-        for( CssOutput result : state.results ) {
-            result.appendTo( target, lessExtends, this );
+            // the leading header rules (@charset, @import) are written first, so that the header must not be inserted
+            // before the rules in the common case
+            List<Formattable> rules = parser.getRules();
+            int leadingRules = 0;
+            leading: for( ; leadingRules < rules.size(); leadingRules++ ) {
+                Formattable rule = rules.get( leadingRules );
+                switch( rule.getType() ) {
+                    case Formattable.REFERENCE_INFO:
+                        state.isReference = ((ReferenceInfo)rule).isReference();
+                        break;
+                    case Formattable.CSS_AT_RULE:
+                        if( !state.isReference && ((CssAtRule)rule).isHeader() ) {
+                            rule.appendTo( this );
+                        }
+                        break;
+                    default:
+                        break leading; // can write to the header too
+                }
+            }
+            state.isReference = false;
+            StringBuilder header = state.header.output;
+            final int headerStart = target.length();
+            final int headerLength = header.length();
+            target.append( header );
+            final int start = target.length();
+
+            for( int i = 0; i < rules.size(); i++ ) {
+                Formattable rule = rules.get( i );
+                switch( rule.getType() ) {
+                    case Formattable.REFERENCE_INFO:
+                        state.isReference = ((ReferenceInfo)rule).isReference();
+                        continue;
+                    case Formattable.MIXIN:
+                        ((Mixin)rule).appendSubRules( null, this );
+                        break;
+                    case Formattable.CSS_AT_RULE:
+                        if( state.isReference || (i < leadingRules && ((CssAtRule)rule).isHeader()) ) {
+                            continue;
+                        }
+                        //$FALL-THROUGH$
+                    default:
+                        rule.appendTo( this );
+                }
+            }
+            removeVariables( parser.getVariables() );
+
+            // the rules are already written in the target, only differences to the written order are patched
+            output = target;
+            contentOutput = null;
+            buffer.startLayout( start );
+            for( CssOutput result : state.results ) {
+                result.appendTo( buffer, lessExtends, this );
+            }
+            buffer.finishLayout();
+            if( header.length() > headerLength ) {
+                // header rules after other rules
+                target.insert( headerStart + headerLength, header, headerLength, header.length() );
+            }
+        } finally {
+            UrlUtils.cancelPrefetch( state.prefetches );
+            state.prefetches = null;
         }
     }
 
@@ -232,7 +320,7 @@ void format( LessParser parser, URL baseURL, ReaderFactory readerFactory, String
      * @return 0, 1 or 2
      */
     private int parseRewriteUrl() {
-        String rewrite = options.get( Less.REWRITE_URLS );
+        String rewrite = state.options.get( Less.REWRITE_URLS );
         if( rewrite != null ) {
             switch( rewrite.toLowerCase() ) {
                 case "off":
@@ -251,7 +339,7 @@ private int parseRewriteUrl() {
      * @return the header formatter
      */
     CssFormatter getHeader() {
-        return state.header;//results.get( 0 );
+        return state.header;
     }
 
     /**
@@ -270,12 +358,35 @@ void setCharsetDirective() {
         state.charsetDirective = true;
     }
 
+    /**
+     * Get a cleared holder for the evaluation of an expression. It must be returned with freeEvaluationResult.
+     * 
+     * @return the holder
+     */
+    EvaluationResult getEvaluationResult() {
+        EvaluationResult result = state.evaluationResults.pollLast();
+        if( result == null ) {
+            result = new EvaluationResult();
+        }
+        result.clear();
+        return result;
+    }
+
+    /**
+     * Return a holder from getEvaluationResult for reuse.
+     * 
+     * @param result the holder
+     */
+    void freeEvaluationResult( EvaluationResult result ) {
+        state.evaluationResults.addLast( result );
+    }
+
     /**
      * Add a new output buffer to the formatter.
      */
     void addOutput() {
         if( output != null ) {
-            outputs.addLast( output );
+            state.outputs.addLast( output );
         }
         output = state.pool.get();
     }
@@ -285,7 +396,7 @@ void addOutput() {
      */
     void freeOutput() {
         state.pool.free( output );
-        output = outputs.size() > 0 ? outputs.removeLast() : null;
+        output = state.outputs.size() > 0 ? state.outputs.removeLast() : null;
     }
 
     /**
@@ -323,7 +434,11 @@ int getOutputSize() {
      * @param size the marker position
      */
     void setOutputSize( int size ) {
-        output.setLength( size );
+        if( output == state.buffer.getText() ) {
+            state.buffer.truncate( size );
+        } else {
+            output.setLength( size );
+        }
     }
 
     /**
@@ -353,7 +468,7 @@ public URL getBaseURL() {
      * @see #parseRewriteUrl()
      */
     boolean isRewriteUrl( String url ) {
-        switch( rewriteUrl ) {
+        switch( state.rewriteUrl ) {
             default:
             case 0: // off
                 return false;
@@ -377,7 +492,7 @@ boolean isRewriteUrl( String url ) {
      * @return true, is off
      */
     boolean isRewriteUrlOff() {
-        return rewriteUrl == 0;
+        return state.rewriteUrl == 0;
     }
 
     /**
@@ -385,7 +500,44 @@ boolean isRewriteUrlOff() {
      * @return the factory
      */
     ReaderFactory getReaderFactory() {
-        return readerFactory;
+        return state.readerFactory;
+    }
+
+    /**
+     * Get the pending read of a data-uri content.
+     * 
+     * @param key relative URL of the less file and the URL of the content separated with '|'
+     * @return the read or null if not prefetched
+     */
+    FutureTask<byte[]> getPrefetch( String key ) {
+        HashMap<String, FutureTask<byte[]>> prefetches = state.prefetches;
+        return prefetches == null ? null : prefetches.get( key );
+    }
+
+    /**
+     * Get the image sizes that are read in this compile.
+     * 
+     * @return the sizes by URL
+     */
+    HashMap<String, double[]> getImageSizes() {
+        HashMap<String, double[]> imageSizes = state.imageSizes;
+        if( imageSizes == null ) {
+            imageSizes = state.imageSizes = new HashMap<>();
+        }
+        return imageSizes;
+    }
+
+    /**
+     * Get the units of this compile that are not registered in {@link Units}.
+     * 
+     * @return the units, the index plus the count of registered units is the unit id
+     */
+    List<String> getUnknownUnits() {
+        ArrayList<String> unknownUnits = state.unknownUnits;
+        if( unknownUnits == null ) {
+            unknownUnits = state.unknownUnits = new ArrayList<>();
+        }
+        return unknownUnits;
     }
 
     /**
@@ -599,13 +751,33 @@ int stackID() {
      */
     StringBuilder getOutput() {
         if( output == null ) {
-            CssFormatter block = copy( null );
-            state.results.add( new CssPlainOutput( block.output ) );
-            output = block.output;
+            contentOutput = new CssPlainOutput();
+            state.results.add( contentOutput );
+            output = state.buffer.getText();
         }
+        claim();
         return output;
     }
 
+    /**
+     * Assign the next written characters in the shared buffer to the content output of this formatter. It must be
+     * called before writing if another formatter can have written in the meantime.
+     */
+    private void claim() {
+        if( contentOutput != null && output == state.buffer.getText() ) {
+            state.buffer.claim( contentOutput );
+        }
+    }
+
+    /**
+     * Get the last written character of the content of the current block.
+     *
+     * @return the character or -1 if there is no content
+     */
+    int lastContentChar() {
+        return contentOutput == null ? -1 : contentOutput.lastBodyChar( state.buffer );
+    }
+
     /**
      * Set the inline mode. In the inline mode:
      * <li>quotes are removed from strings
@@ -685,14 +857,19 @@ public CssFormatter append( char ch ) {
      * @return a reference to this object
      */
     public CssFormatter append( double value ) {
-        if( value == (int)value ) {
-            output.append( Integer.toString( (int)value ) );
-        } else {
-            output.append( decFormat.format( value ) );
-        }
+        NumberUtils.append( output, value, isLeadingZero() );
         return this;
     }
 
+    /**
+     * If a zero before the decimal point of numbers between -1 and 1 is written.
+     *
+     * @return true, if the leading zero is written
+     */
+    boolean isLeadingZero() {
+        return true;
+    }
+
     /**
      * Append a value with a unit. In compress mode not all units are written.
      *
@@ -710,14 +887,14 @@ public CssFormatter appendValue( double value, String unit ) {
      * Increment the insets of the output.
      */
     void incInsets() {
-        insets.append( "  " );
+        insets += 2;
     }
 
     /**
      * Decrement the insets of the output.
      */
     void decInsets() {
-        insets.setLength( insets.length() - 2 );
+        insets -= 2;
     }
 
     /**
@@ -727,6 +904,7 @@ void decInsets() {
      */
     CssFormatter startBlock( String[] selectors ) {
         final List<CssOutput> results = state.results;
+        final StringBuilder text = state.buffer.getText();
         if( blockDeep == 0 ) {
             output = null;
             CssOutput nextOutput = null;
@@ -736,43 +914,51 @@ CssFormatter startBlock( String[] selectors ) {
                     nextOutput = cssOutput;
                 }
             }
-            CssFormatter block;
+            CssFormatter block = copy( text );
             if( nextOutput == null ) {
-                block = copy( null );
                 if( selectors[0].startsWith( "@media" ) ) {
                     block.lessExtends = new LessExtendMap( state.lessExtends );
-                    nextOutput = new CssMediaOutput( selectors, block.output, state.isReference, block.lessExtends );
+                    CssMediaOutput media = new CssMediaOutput( selectors, state.isReference, block.lessExtends );
+                    nextOutput = media;
+                    block.contentOutput = media.getPlainOutput();
                 } else {
-                    nextOutput = new CssRuleOutput( selectors, block.output, state.isReference );
+                    nextOutput = block.contentOutput = new CssRuleOutput( selectors, state.isReference );
                 }
                 results.add( nextOutput );
+                block.blockOutput = nextOutput;
+                block.openBlock( selectors );
             } else {
-                block = copy( nextOutput.getOutput() );
+                block.blockOutput = nextOutput;
+                block.contentOutput = nextOutput.getClass() == CssMediaOutput.class ? ((CssMediaOutput)nextOutput).getPlainOutput() : nextOutput;
+                block.reopenBlock( selectors );
             }
             block.currentOutput = nextOutput;
-            block.incInsets();
             block.blockDeep++;
             return block;
         } else {
             if( selectors[0].startsWith( "@media" ) ) {
-                CssFormatter block = copy( null );
+                CssFormatter block = copy( text );
                 block.lessExtends = new LessExtendMap( state.lessExtends );
                 String[] sel = new String[]{ this.currentOutput.getSelectors()[0] + " and " + selectors[0].substring( 6 ).trim() };
-                block.currentOutput = new CssMediaOutput( sel, block.output, state.isReference, block.lessExtends );
-                results.add( block.currentOutput );
-                block.insets.setLength( 2 );
+                CssMediaOutput media = new CssMediaOutput( sel, state.isReference, block.lessExtends );
+                block.currentOutput = block.blockOutput = media;
+                block.contentOutput = media.getPlainOutput();
+                results.add( media );
+                block.insets = 0;
+                block.openBlock( sel );
                 block.blockDeep = 1;
                 return block;
             } else {
                 if( blockDeep == 1 && this.currentOutput.getClass() == CssMediaOutput.class ) {
-                    CssFormatter block = copy( null );
-                    block.incInsets();
+                    CssFormatter block = copy( text );
                     block.currentOutput = this.currentOutput;
-                    ((CssMediaOutput)this.currentOutput).startBlock( selectors, block.output );
+                    block.blockOutput = block.contentOutput = ((CssMediaOutput)this.currentOutput).startBlock( selectors );
+                    block.openBlock( selectors );
                     block.blockDeep++;
                     return block;
                 } else {
                     blockDeep++;
+                    claim();
                     startBlockImpl( selectors );
                     return this;
                 }
@@ -780,6 +966,47 @@ CssFormatter startBlock( String[] selectors ) {
         }
     }
 
+    /**
+     * Write the header of a new top level block in the shared buffer.
+     *
+     * @param selectors the selectors of the block.
+     */
+    private void openBlock( String[] selectors ) {
+        state.buffer.begin( blockOutput, CssOutputBuffer.HEADER );
+        startBlockImpl( selectors );
+    }
+
+    /**
+     * Continue a top level block with the same selectors as the previous block.
+     *
+     * @param selectors the selectors of the block.
+     */
+    private void reopenBlock( String[] selectors ) {
+        CssOutputBuffer buffer = state.buffer;
+        if( buffer.isLast( blockOutput, CssOutputBuffer.CLOSING ) ) {
+            buffer.removeLast();
+            incInsets();
+        } else if( blockOutput.hasSegments() ) {
+            incInsets();
+        } else {
+            openBlock( selectors );
+        }
+    }
+
+    /**
+     * Write the end of a top level block in the shared buffer. The header of an empty block is removed.
+     */
+    private void closeBlock() {
+        CssOutputBuffer buffer = state.buffer;
+        if( buffer.isLast( blockOutput, CssOutputBuffer.HEADER ) ) {
+            buffer.removeLast();
+            decInsets();
+        } else {
+            buffer.begin( blockOutput, CssOutputBuffer.CLOSING );
+            endBlockImpl();
+        }
+    }
+
     /**
      * Output a new block and increment the insets.
      *
@@ -808,15 +1035,14 @@ void startBlockImpl( String[] selectors ) {
     CssFormatter endBlock() {
         blockDeep--;
         if( blockDeep == 0 ) {
-            state.pool.free( insets );
-            insets = null;
             inlineMode = false;
+            closeBlock();
         } else {
             if( blockDeep == 1 && currentOutput.getClass() == CssMediaOutput.class ) {
-                state.pool.free( insets );
-                insets = null;
                 inlineMode = false;
+                closeBlock();
             } else {
+                claim();
                 endBlockImpl();
             }
         }
@@ -838,18 +1064,25 @@ void endBlockImpl() {
      *
      * @param name
      *            the name
+     * @param nameTemplate
+     *            the compiled name if the name has place holders
      * @param value
      *            the value
      * @throws LessException
      *             if write properties in the root
      */
-    void appendProperty( @Nonnull String name, @Nonnull Expression value ) {
+    void appendProperty( @Nonnull String name, @Nullable PlaceHolderTemplate nameTemplate, @Nonnull Expression value ) {
         if( output == null ) {
             throw new LessException( "Properties must be inside selector blocks, they cannot be in the root." );
         }
+        claim();
         insets();
-        name = SelectorUtils.replacePlaceHolder( this, name, value );
-        output.append( name ).append( ':' );
+        if( nameTemplate != null ) {
+            nameTemplate.appendTo( this, value );
+        } else {
+            output.append( name );
+        }
+        output.append( ':' );
         space();
         value.appendTo( this );
         if( state.importantCount > 0 || value.isImportant() ) {
@@ -897,6 +1130,7 @@ CssFormatter newline() {
      * Write a semicolon. The compress formatter do nothing before an end block.
      */
     void semicolon() {
+        claim();
         output.append( ';' );
     }
 
@@ -904,7 +1138,17 @@ void semicolon() {
      * Write the current insets. The compress formatter do nothing.
      */
     void insets() {
-        output.append( insets );
+        appendInsets( output );
+    }
+
+    /**
+     * Append the spaces of the current insets.
+     * @param builder the target
+     */
+    private void appendInsets( StringBuilder builder ) {
+        for( int count = insets; count > 0; count -= SPACES.length() ) {
+            builder.append( SPACES, 0, Math.min( count, SPACES.length() ) );
+        }
     }
 
     /**
@@ -913,7 +1157,9 @@ void insets() {
      * @return a reference to this object
      */
     CssFormatter comment( String msg ) {
-        getOutput().append( insets ).append( msg ).append( '\n' );
+        StringBuilder output = getOutput();
+        appendInsets( output );
+        output.append( msg ).append( '\n' );
         return this;
     }
 
@@ -923,6 +1169,6 @@ CssFormatter comment( String msg ) {
      * @return the format
      */
     DecimalFormat getFormat() {
-        return decFormat;
+        return state.decFormat;
     }
 }
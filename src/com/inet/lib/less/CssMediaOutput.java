@@ -46,16 +46,14 @@ class CssMediaOutput extends CssOutput {
      * 
      * @param selectors
      *            the selectors of the rule
-     * @param output
-     *            a buffer for the content of the rule.
      * @param isReference
      *            if this content was loaded via reference
      * @param lessExtends
      *            a extends container only for this media rule
      */
-    CssMediaOutput( String[] selectors, StringBuilder output, boolean isReference, LessExtendMap lessExtends ) {
+    CssMediaOutput( String[] selectors, boolean isReference, LessExtendMap lessExtends ) {
         this.selectors = selectors;
-        this.results.add( new CssPlainOutput( output ) );
+        this.results.add( new CssPlainOutput() );
         this.isReference = isReference;
         this.lessExtends = lessExtends;
     }
@@ -64,13 +62,13 @@ class CssMediaOutput extends CssOutput {
      * {@inheritDoc}
      */
     @Override
-    void appendTo( StringBuilder target, LessExtendMap lessExtends, CssFormatter formatter ) {
-        if( hasContent( lessExtends ) ) {
-            formatter.startBlockImpl( selectors );
+    void appendTo( CssOutputBuffer buffer, LessExtendMap lessExtends, CssFormatter formatter ) {
+        if( hasContent( buffer, lessExtends ) ) {
+            appendHeader( buffer, selectors, true, formatter );
             for( CssOutput cssOutput : results ) {
-                cssOutput.appendTo( target, this.lessExtends, formatter );
+                cssOutput.appendTo( buffer, this.lessExtends, formatter );
             }
-            formatter.endBlockImpl();
+            appendClosing( buffer, formatter );
         }
     }
 
@@ -78,9 +76,9 @@ void appendTo( StringBuilder target, LessExtendMap lessExtends, CssFormatter for
      * {@inheritDoc}
      */
     @Override
-    boolean hasContent( LessExtendMap lessExtends ) {
+    boolean hasContent( CssOutputBuffer buffer, LessExtendMap lessExtends ) {
         for( CssOutput cssOutput : results ) {
-            if( cssOutput.hasContent( this.lessExtends ) ) {
+            if( cssOutput.hasContent( buffer, this.lessExtends ) ) {
                 return true;
             }
         }
@@ -101,23 +99,25 @@ String[] getSelectors() {
      * 
      * @param selectors
      *            the selectors
-     * @param output
-     *            a buffer for the content of the rule.
+     * @return the output for the content of the rule.
      */
-    void startBlock( String[] selectors , StringBuilder output  ) {
-        this.results.add( new CssRuleOutput( selectors, output, isReference ) );
+    CssRuleOutput startBlock( String[] selectors ) {
+        CssRuleOutput output = new CssRuleOutput( selectors, isReference );
+        this.results.add( output );
+        return output;
     }
 
     /**
-     * {@inheritDoc}
+     * Get the output for plain content like properties and comments directly in the media.
+     * 
+     * @return the last plain output, a new is added if the last output is a rule
      */
-    @Override
-    StringBuilder getOutput() {
+    CssOutput getPlainOutput() {
         CssOutput cssOutput = results.get( results.size() - 1 );
         if( cssOutput instanceof CssRuleOutput ) {
-            cssOutput = new CssPlainOutput( new StringBuilder() );
+            cssOutput = new CssPlainOutput();
             this.results.add( cssOutput );
         }
-        return cssOutput.getOutput();
+        return cssOutput;
     }
 }
@@ -26,28 +26,36 @@
  */
 package com.inet.lib.less;
 
+import java.util.Arrays;
 
 /**
- * Container for formatted CSS result.
+ * Container for formatted CSS result. The content is written in the shared CssOutputBuffer. Every output hold the
+ * indexes of its segments in the buffer.
  */
 abstract class CssOutput {
 
+    private int[] segments = new int[4];
+
+    private int   segmentCount;
+
     /**
      * Write the this output to the target
-     * @param target the target
+     * @param buffer the buffer with the written content, it is also the target
      * @param lessExtends all extends in the less
      * @param formatter a formatter
      */
-    abstract void appendTo( StringBuilder target, LessExtendMap lessExtends, CssFormatter formatter );
+    abstract void appendTo( CssOutputBuffer buffer, LessExtendMap lessExtends, CssFormatter formatter );
 
     /**
      * If this output has content
      * 
+     * @param buffer
+     *            the buffer with the written content
      * @param lessExtends
      *            current extends container
      * @return true, if there is content
      */
-    abstract boolean hasContent( LessExtendMap lessExtends );
+    abstract boolean hasContent( CssOutputBuffer buffer, LessExtendMap lessExtends );
 
     /**
      * Get the selectors of this rule.
@@ -57,9 +65,110 @@ abstract class CssOutput {
     abstract String[] getSelectors();
 
     /**
-     * Get the native output buffer
+     * Add a segment of the buffer to this output.
+     * 
+     * @param segment the segment index
+     */
+    void addSegment( int segment ) {
+        if( segmentCount == segments.length ) {
+            segments = Arrays.copyOf( segments, segmentCount * 2 );
+        }
+        segments[segmentCount++] = segment;
+    }
+
+    /**
+     * Remove the last segment of this output.
+     */
+    void removeLastSegment() {
+        segmentCount--;
+    }
+
+    /**
+     * If this output has written any segment.
+     * 
+     * @return true, if there are segments
+     */
+    boolean hasSegments() {
+        return segmentCount > 0;
+    }
+
+    /**
+     * If the there is any written content between the braces.
+     * 
+     * @param buffer the buffer with the written content
+     * @return true, if there is content
+     */
+    boolean hasBody( CssOutputBuffer buffer ) {
+        for( int i = 0; i < segmentCount; i++ ) {
+            int segment = segments[i];
+            if( buffer.kind( segment ) == CssOutputBuffer.BODY && buffer.length( segment ) > 0 ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the last written character of the content.
+     * 
+     * @param buffer the buffer with the written content
+     * @return the character or -1 if there is no content
+     */
+    int lastBodyChar( CssOutputBuffer buffer ) {
+        for( int i = segmentCount - 1; i >= 0; i-- ) {
+            int segment = segments[i];
+            if( buffer.kind( segment ) == CssOutputBuffer.BODY && buffer.length( segment ) > 0 ) {
+                return buffer.lastChar( segment );
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Write the selectors and the opening brace. The written header is reused if the selectors was not changed.
+     * 
+     * @param buffer the buffer with the written content
+     * @param selectors the final selectors
+     * @param unchanged true, if the selectors are the same as on writing
+     * @param formatter the formatter of the final layout
+     */
+    void appendHeader( CssOutputBuffer buffer, String[] selectors, boolean unchanged, CssFormatter formatter ) {
+        if( unchanged && segmentCount > 0 && buffer.kind( segments[0] ) == CssOutputBuffer.HEADER ) {
+            buffer.append( segments[0] );
+            formatter.incInsets();
+        } else {
+            buffer.detach();
+            formatter.startBlockImpl( selectors );
+        }
+    }
+
+    /**
+     * Write the content of this output.
+     * 
+     * @param buffer the buffer with the written content
+     */
+    void appendBody( CssOutputBuffer buffer ) {
+        for( int i = 0; i < segmentCount; i++ ) {
+            int segment = segments[i];
+            if( buffer.kind( segment ) == CssOutputBuffer.BODY ) {
+                buffer.append( segment );
+            }
+        }
+    }
+
+    /**
+     * Write the closing brace.
      * 
-     * @return the buffer
+     * @param buffer the buffer with the written content
+     * @param formatter the formatter of the final layout
      */
-    abstract StringBuilder getOutput();
+    void appendClosing( CssOutputBuffer buffer, CssFormatter formatter ) {
+        if( segmentCount > 0 && buffer.kind( segments[segmentCount - 1] ) == CssOutputBuffer.CLOSING ) {
+            buffer.append( segments[segmentCount - 1] );
+            formatter.decInsets();
+        } else {
+            buffer.detach();
+            formatter.endBlockImpl();
+        }
+    }
 }
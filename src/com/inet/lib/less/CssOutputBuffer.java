@@ -0,0 +1,268 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.util.Arrays;
+
+/**
+ * The single output buffer of all rules. The rules write directly in the final target. The buffer is split in segments
+ * which are assigned to the CssOutput that has write it. If the final order of the rules, the selectors after the
+ * extends or the content of rules differ from the written order then the buffer is rebuild from the first difference.
+ */
+final class CssOutputBuffer {
+
+    /** segment with the selectors and the opening brace of a block */
+    static final byte     HEADER  = 0;
+
+    /** segment with content of a block or plain output */
+    static final byte     BODY    = 1;
+
+    /** segment with the closing brace of a block */
+    static final byte     CLOSING = 2;
+
+    private final StringBuilder text;
+
+    private CssOutput[]   owners  = new CssOutput[64];
+
+    private int[]         starts  = new int[64];
+
+    private byte[]        kinds   = new byte[64];
+
+    private int           count;
+
+    /** the end of the written content, is set on start of the layout */
+    private int           end     = -1;
+
+    /** all content before this position is final */
+    private int           pos;
+
+    /** copy of the written content after the first difference, null if there is no difference */
+    private String        rest;
+
+    /**
+     * Create a new instance.
+     * 
+     * @param text the target of the output
+     */
+    CssOutputBuffer( StringBuilder text ) {
+        this.text = text;
+    }
+
+    /**
+     * Get the buffer in which the rules write.
+     * 
+     * @return the text buffer
+     */
+    StringBuilder getText() {
+        return text;
+    }
+
+    /**
+     * Start a new segment at the current end of the text.
+     * 
+     * @param owner the output that write the segment
+     * @param kind the type of the segment
+     */
+    void begin( CssOutput owner, byte kind ) {
+        trim();
+        if( count == starts.length ) {
+            int size = count * 2;
+            owners = Arrays.copyOf( owners, size );
+            starts = Arrays.copyOf( starts, size );
+            kinds = Arrays.copyOf( kinds, size );
+        }
+        owners[count] = owner;
+        starts[count] = text.length();
+        kinds[count] = kind;
+        owner.addSegment( count++ );
+    }
+
+    /**
+     * Assign the next written characters to the content of the given output.
+     * 
+     * @param owner the output
+     */
+    void claim( CssOutput owner ) {
+        if( count == 0 || owners[count - 1] != owner || kinds[count - 1] != BODY ) {
+            begin( owner, BODY );
+        }
+    }
+
+    /**
+     * Remove trailing empty content segments.
+     */
+    private void trim() {
+        while( count > 0 && kinds[count - 1] == BODY && starts[count - 1] == text.length() ) {
+            removeSegment();
+        }
+    }
+
+    /**
+     * Remove the last segment from the table but not from the text.
+     */
+    private void removeSegment() {
+        count--;
+        owners[count].removeLastSegment();
+        owners[count] = null;
+    }
+
+    /**
+     * If the last written segment is from the given owner and kind.
+     * 
+     * @param owner the output
+     * @param kind the type of the segment
+     * @return true, if it is the last
+     */
+    boolean isLast( CssOutput owner, byte kind ) {
+        trim();
+        return count > 0 && owners[count - 1] == owner && kinds[count - 1] == kind;
+    }
+
+    /**
+     * Remove the last segment with its content.
+     */
+    void removeLast() {
+        truncate( starts[count - 1] );
+    }
+
+    /**
+     * Reset the text to a previous size and remove all segments after it.
+     * 
+     * @param size the new size
+     */
+    void truncate( int size ) {
+        if( size > text.length() ) {
+            return; // the marker is already removed
+        }
+        while( count > 0 && starts[count - 1] >= size ) {
+            removeSegment();
+        }
+        text.setLength( size );
+    }
+
+    /**
+     * Get the type of a segment.
+     * 
+     * @param segment the segment index
+     * @return the kind
+     */
+    byte kind( int segment ) {
+        return kinds[segment];
+    }
+
+    /**
+     * Get the length of a segment.
+     * 
+     * @param segment the segment index
+     * @return the length
+     */
+    int length( int segment ) {
+        return end( segment ) - starts[segment];
+    }
+
+    /**
+     * Get the last character of a segment.
+     * 
+     * @param segment the segment index
+     * @return the character
+     */
+    char lastChar( int segment ) {
+        int end = end( segment );
+        return rest != null && end > pos ? rest.charAt( end - 1 - pos ) : text.charAt( end - 1 );
+    }
+
+    /**
+     * Get the end position of a segment.
+     * 
+     * @param segment the segment index
+     * @return the position after the last character
+     */
+    private int end( int segment ) {
+        if( segment + 1 < count ) {
+            return starts[segment + 1];
+        }
+        return end < 0 ? text.length() : end;
+    }
+
+    /**
+     * Start the writing of the final layout.
+     * 
+     * @param start the position of the first character of the formatted rules
+     */
+    void startLayout( int start ) {
+        trim();
+        end = text.length();
+        pos = start;
+    }
+
+    /**
+     * Write a segment at the current position of the layout. If the segment is already on the position then nothing
+     * need to copy.
+     * 
+     * @param segment the segment index
+     */
+    void append( int segment ) {
+        int start = starts[segment];
+        int end = end( segment );
+        if( start == end ) {
+            return;
+        }
+        if( rest == null ) {
+            if( start == pos ) {
+                pos = end;
+                return;
+            }
+            detach();
+        }
+        if( start >= pos ) {
+            text.append( rest, start - pos, end - pos );
+        } else {
+            text.append( text, start, end );
+        }
+    }
+
+    /**
+     * Write the rest of the layout in a new copy because the layout differs from the written order. All later content
+     * is appended at the end of the text.
+     */
+    void detach() {
+        if( rest == null ) {
+            rest = text.substring( pos );
+            text.setLength( pos );
+        }
+    }
+
+    /**
+     * Finish the layout and remove content that was not used.
+     */
+    void finishLayout() {
+        if( rest == null ) {
+            text.setLength( pos );
+        }
+        rest = null;
+    }
+}
@@ -31,30 +31,20 @@
  */
 class CssPlainOutput extends CssOutput {
 
-    private StringBuilder output;
-
-    /**
-     * Create a new output sequence.
-     * @param output a string builder to hold the plain output.
-     */
-    CssPlainOutput( StringBuilder output ) {
-        this.output = output;
-    }
-
     /**
      * {@inheritDoc}
      */
     @Override
-    void appendTo( StringBuilder target, LessExtendMap lessExtends, CssFormatter formatter ) {
-        target.append( output );
+    void appendTo( CssOutputBuffer buffer, LessExtendMap lessExtends, CssFormatter formatter ) {
+        appendBody( buffer );
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    boolean hasContent(LessExtendMap lessExtends ) {
-        return output.length() > 0;
+    boolean hasContent( CssOutputBuffer buffer, LessExtendMap lessExtends ) {
+        return hasBody( buffer );
     }
 
     /**
@@ -64,12 +54,4 @@ boolean hasContent(LessExtendMap lessExtends ) {
     String[] getSelectors() {
         return null;
     }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    StringBuilder getOutput() {
-        return output;
-    }
 }
@@ -33,19 +33,17 @@
 class CssRuleOutput extends CssOutput {
 
     private String[] selectors;
-    private StringBuilder output;
     private boolean isReference;
     private boolean isConcatExtents;
+    private boolean isExtended;
 
     /**
      * Create a instance.
      * @param selectors the selectors of the rule
-     * @param output a buffer for the content of the rule. 
      * @param isReference if this content was loaded via reference
      */
-    CssRuleOutput( String[] selectors, StringBuilder output, boolean isReference ) {
+    CssRuleOutput( String[] selectors, boolean isReference ) {
         this.selectors = selectors;
-        this.output = output;
         this.isReference = isReference;
     }
 
@@ -53,11 +51,11 @@ class CssRuleOutput extends CssOutput {
      * {@inheritDoc}
      */
     @Override
-    void appendTo( StringBuilder target, LessExtendMap lessExtends, CssFormatter formatter ) {
-        if( hasContent(lessExtends) ) {
-            formatter.startBlockImpl( selectors );
-            target.append( output );
-            formatter.endBlockImpl();
+    void appendTo( CssOutputBuffer buffer, LessExtendMap lessExtends, CssFormatter formatter ) {
+        if( hasContent( buffer, lessExtends ) ) {
+            appendHeader( buffer, selectors, !isExtended, formatter );
+            appendBody( buffer );
+            appendClosing( buffer, formatter );
         }
     }
 
@@ -65,13 +63,15 @@ void appendTo( StringBuilder target, LessExtendMap lessExtends, CssFormatter for
      * {@inheritDoc}
      */
     @Override
-    boolean hasContent(LessExtendMap lessExtends ) {
-        if( output.length() == 0 ) {
+    boolean hasContent( CssOutputBuffer buffer, LessExtendMap lessExtends ) {
+        if( !hasBody( buffer ) ) {
             return false;
         }
         if( !isConcatExtents ) {
             isConcatExtents = true;
-            selectors = lessExtends.concatenateExtends( selectors, isReference );
+            String[] extended = lessExtends.concatenateExtends( selectors, isReference );
+            isExtended = extended != selectors;
+            selectors = extended;
         }
         return selectors.length > 0;
     }
@@ -83,12 +83,4 @@ boolean hasContent(LessExtendMap lessExtends ) {
     String[] getSelectors() {
         return selectors;
     }
-
-    /**
-     * Get the output of this rule.
-     * @return the output
-     */
-    StringBuilder getOutput() {
-        return output;
-    }
 }
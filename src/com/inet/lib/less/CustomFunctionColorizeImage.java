@@ -31,10 +31,17 @@
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
 import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import javax.imageio.ImageIO;
 
@@ -45,6 +52,24 @@
  */
 class CustomFunctionColorizeImage implements CustomLessFunction {
 
+    /** images with more pixels are colorized in parallel */
+    private static final int                          PARALLEL_PIXELS = 64 * 1024;
+
+    /** the size of the lookup table for colors that must be calculated */
+    private static final int                          LUT_SIZE        = 4096;
+
+    /** the colorized PNG images, the weight is the size of the images */
+    private static final BoundedCache<String, byte[]> IMAGES          = new BoundedCache<>( Integer.MAX_VALUE, 16 * 1024 * 1024, bytes -> 16 + bytes.length );
+
+    /**
+     * Set the memory limit of the cache for colorized images.
+     * 
+     * @param bytes the limit in bytes
+     */
+    static void setCacheLimit( long bytes ) {
+        IMAGES.setMaxWeight( bytes );
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -61,9 +86,45 @@ public void appendTo( CssFormatter formatter, List<Expression> parameters ) thro
         String urlStr = UrlUtils.removeQuote( urlString );
         url = new URL( url, urlStr );
         int mainColor = ColorUtils.argb( ColorUtils.getColor( parameters.get( 2 ), formatter ) );
+        int contrastColor = parameters.size() > 3 ? ColorUtils.argb( ColorUtils.getColor( parameters.get( 3 ), formatter ) ) : mainColor;
+
+        // the file stamp or the hash of the content is the fingerprint of the image
+        byte[] content = null;
+        String stamp = formatter.getReaderFactory().getCacheKey( url );
+        if( stamp == null ) {
+            try( InputStream input = url.openStream() ) {
+                content = readAll( input );
+            }
+            stamp = url + "|" + digest( content );
+        }
+        String key = stamp + '|' + Integer.toHexString( mainColor ) + '|' + Integer.toHexString( contrastColor );
+        byte[] png = IMAGES.get( key );
+        if( png == null ) {
+            BufferedImage loadedImage;
+            if( content != null ) {
+                loadedImage = ImageIO.read( new ByteArrayInputStream( content ) );
+            } else {
+                try( InputStream input = url.openStream() ) {
+                    loadedImage = ImageIO.read( input );
+                }
+            }
+            png = colorize( loadedImage, mainColor, contrastColor );
+            IMAGES.put( key, png );
+        }
 
-        BufferedImage loadedImage = ImageIO.read( url.openStream() );
+        UrlUtils.dataUri( formatter, png, urlString, "image/png;base64" );
+    }
 
+    /**
+     * Colorize the image.
+     * 
+     * @param loadedImage the original image
+     * @param mainColor the main color as ARGB
+     * @param contrastColor the contrast color as ARGB
+     * @return the colorized image as PNG
+     * @throws IOException If any I/O errors occur on writing the PNG
+     */
+    private static byte[] colorize( BufferedImage loadedImage, int mainColor, int contrastColor ) throws IOException {
         // convert the image in a standard color model
         int width = loadedImage.getWidth( null );
         int height = loadedImage.getHeight( null );
@@ -73,55 +134,107 @@ public void appendTo( CssFormatter formatter, List<Expression> parameters ) thro
         bGr.dispose();
 
         final float[] mainColorHsb = Color.RGBtoHSB( (mainColor >> 16) & 0xFF, (mainColor >> 8) & 0xFF, mainColor & 0xFF, null );
-        final float[] contrastColorHsb;
-        if( parameters.size() > 3 ) {
-            int contrastColor = ColorUtils.argb( ColorUtils.getColor( parameters.get( 3 ), formatter ) );
-            contrastColorHsb = Color.RGBtoHSB( (contrastColor >> 16) & 0xFF, (contrastColor >> 8) & 0xFF, contrastColor & 0xFF, null );
-        } else {
-            contrastColorHsb = mainColorHsb;
-        }
+        final float[] contrastColorHsb = Color.RGBtoHSB( (contrastColor >> 16) & 0xFF, (contrastColor >> 8) & 0xFF, contrastColor & 0xFF, null );
 
         // get the pixel data
         WritableRaster raster = image.getRaster();
         DataBufferInt buffer = (DataBufferInt)raster.getDataBuffer();
         int[] data = buffer.getData();
 
+        if( data.length <= PARALLEL_PIXELS ) {
+            colorize( data, 0, data.length, mainColorHsb, contrastColorHsb );
+        } else {
+            int chunks = (data.length + PARALLEL_PIXELS - 1) / PARALLEL_PIXELS;
+            IntStream.range( 0, chunks ).parallel().forEach( chunk -> {
+                int from = chunk * PARALLEL_PIXELS;
+                colorize( data, from, Math.min( from + PARALLEL_PIXELS, data.length ), mainColorHsb, contrastColorHsb );
+            } );
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write( image, "PNG", out );
+        return out.toByteArray();
+    }
+
+    /**
+     * Colorize a range of pixels. Only full saturated colors are mixed with the main color. All other colors are
+     * replaced with the main color or with the contrast color if the brightness is full.
+     * 
+     * @param data the ARGB pixels
+     * @param from the first pixel
+     * @param to the end of the range
+     * @param mainColorHsb the main color
+     * @param contrastColorHsb the contrast color
+     */
+    private static void colorize( int[] data, int from, int to, float[] mainColorHsb, float[] contrastColorHsb ) {
+        int mainRgb = Color.HSBtoRGB( mainColorHsb[0], mainColorHsb[1], mainColorHsb[2] ) & 0xFFFFFF;
+        int contrastRgb = Color.HSBtoRGB( contrastColorHsb[0], contrastColorHsb[1], contrastColorHsb[2] ) & 0xFFFFFF;
+
+        // direct mapped lookup table for mixed colors, a key of -1 is empty
+        int[] lutKeys = new int[LUT_SIZE];
+        int[] lutValues = new int[LUT_SIZE];
+        Arrays.fill( lutKeys, -1 );
+
         float[] hsb = new float[3];
-        int hsbColor = 0;
-        int lastRgb = data[0] + 1;
-        for( int i = 0; i < data.length; i++ ) {
-            int rgb = data[i];
-            if( rgb == lastRgb ) {
-                data[i] = hsbColor;
-                continue;
-            }
-            int r = (rgb >> 16) & 0xFF;
+        for( int i = from; i < to; i++ ) {
+            int argb = data[i];
+            int rgb = argb & 0xFFFFFF;
+            int r = rgb >> 16;
             int g = (rgb >> 8) & 0xFF;
             int b = rgb & 0xFF;
-            Color.RGBtoHSB( r, g, b, hsb );
-
-            float[] hsbColorize;
-            if( hsb[1] == 1.0f ) {
-                hsbColorize = hsb;
-                hsb[0] = hsb[0] * 3f / 4f + mainColorHsb[0] / 4f;
-                hsb[1] = hsb[1] * 3f / 4f + mainColorHsb[1] / 4f;
-                hsb[2] = hsb[2] * 3f / 4f + mainColorHsb[2] / 4f;
-            } else {
-                if( hsb[2] == 1.0f ) {
-                    hsbColorize = contrastColorHsb;
+            int max = Math.max( r, Math.max( g, b ) );
+            int min = Math.min( r, Math.min( g, b ) );
+
+            int colorized;
+            if( min == 0 && max > 0 ) {
+                // full saturation
+                int idx = (rgb ^ (rgb >>> 12)) & (LUT_SIZE - 1);
+                if( lutKeys[idx] == rgb ) {
+                    colorized = lutValues[idx];
                 } else {
-                    hsbColorize = mainColorHsb;
+                    Color.RGBtoHSB( r, g, b, hsb );
+                    hsb[0] = hsb[0] * 3f / 4f + mainColorHsb[0] / 4f;
+                    hsb[1] = hsb[1] * 3f / 4f + mainColorHsb[1] / 4f;
+                    hsb[2] = hsb[2] * 3f / 4f + mainColorHsb[2] / 4f;
+                    colorized = Color.HSBtoRGB( hsb[0], hsb[1], hsb[2] ) & 0xFFFFFF;
+                    lutKeys[idx] = rgb;
+                    lutValues[idx] = colorized;
                 }
+            } else {
+                colorized = max == 255 ? contrastRgb : mainRgb;
             }
-            lastRgb = rgb;
-            hsbColor = Color.HSBtoRGB( hsbColorize[0], hsbColorize[1], hsbColorize[2] );
-            hsbColor = (rgb & 0xFF000000) | (hsbColor & 0xFFFFFF);
-            data[i] = hsbColor;
+            data[i] = (argb & 0xFF000000) | colorized;
         }
+    }
 
+    /**
+     * Read the complete content of a stream.
+     * 
+     * @param input the stream
+     * @return the content
+     * @throws IOException If any I/O errors occur on reading
+     */
+    private static byte[] readAll( InputStream input ) throws IOException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
-        ImageIO.write( image, "PNG", out );
+        byte[] data = new byte[8192];
+        int count;
+        while( (count = input.read( data )) > 0 ) {
+            out.write( data, 0, count );
+        }
+        return out.toByteArray();
+    }
 
-        UrlUtils.dataUri( formatter, out.toByteArray(), urlString, "image/png;base64" );
+    /**
+     * Calculate a hash of the content.
+     * 
+     * @param content the content
+     * @return the hash as string
+     */
+    private static String digest( byte[] content ) {
+        try {
+            return Base64.getEncoder().encodeToString( MessageDigest.getInstance( "SHA-256" ).digest( content ) );
+        } catch( NoSuchAlgorithmException ex ) {
+            throw new LessException( ex );
+        }
     }
 }
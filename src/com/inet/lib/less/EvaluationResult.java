@@ -0,0 +1,217 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static com.inet.lib.less.ColorUtils.*;
+
+import java.util.Arrays;
+
+/**
+ * A reusable holder for the typed value of an expression. It is filled with a single call of
+ * {@link Expression#evaluate(CssFormatter, EvaluationResult)} instead of separate calls for data type, value and unit.
+ */
+final class EvaluationResult {
+
+    /** the data type, one of the constants of Expression */
+    int                 type;
+
+    /** the numeric value if the type is a number, percent or color */
+    double              doubleValue;
+
+    /** the value if the type is boolean */
+    boolean             booleanValue;
+
+    /** the id of the unit, see {@link Units}, or -1 if not evaluated */
+    int                 unit;
+
+    private int[]       units      = new int[4];
+
+    private int[]       useCounts  = new int[4];
+
+    private int         unitCount;
+
+    private boolean     unitsCounted;
+
+    /**
+     * Reset all values for a new evaluation.
+     */
+    void clear() {
+        type = Expression.UNKNOWN;
+        doubleValue = 0;
+        booleanValue = false;
+        unit = -1;
+        unitCount = 0;
+        unitsCounted = false;
+    }
+
+    /**
+     * Get the numeric value. If the evaluated type has no numeric value then the expression is asked.
+     * 
+     * @param expr the evaluated expression
+     * @param formatter the CCS target
+     * @return the value
+     */
+    double doubleValue( Expression expr, CssFormatter formatter ) {
+        switch( type ) {
+            case Expression.NUMBER:
+            case Expression.PERCENT:
+            case Expression.RGBA:
+            case Expression.COLOR:
+                return doubleValue;
+            default:
+                return expr.doubleValue( formatter );
+        }
+    }
+
+    /**
+     * Get the unit id. If the unit was not evaluated then the expression is asked.
+     * 
+     * @param expr the evaluated expression
+     * @param formatter the CCS target
+     * @return the unit id
+     */
+    int unit( Expression expr, CssFormatter formatter ) {
+        return unit >= 0 ? unit : Units.id( expr.unit( formatter ), formatter );
+    }
+
+    /**
+     * If the units of a multiplication or division was counted with {@link #countUnit(int, boolean)}.
+     * 
+     * @return true, if counted
+     */
+    boolean isUnitsCounted() {
+        return unitsCounted;
+    }
+
+    /**
+     * Count a unit of a multiplication or division.
+     * 
+     * @param unit the unit id, can be {@link Units#NONE}
+     * @param numerator true, if the unit is in the numerator; false, if in the denominator
+     */
+    void countUnit( int unit, boolean numerator ) {
+        unitsCounted = true;
+        if( unit == Units.NONE ) {
+            return;
+        }
+        addUseCount( unit, numerator ? 1 : -1 );
+    }
+
+    /**
+     * Add the counted units of a nested multiplication or division.
+     * 
+     * @param other the result of the nested operation
+     */
+    void addUnits( EvaluationResult other ) {
+        unitsCounted = true;
+        for( int i = 0; i < other.unitCount; i++ ) {
+            addUseCount( other.units[i], other.useCounts[i] );
+        }
+    }
+
+    /**
+     * Add a count for the given unit.
+     * 
+     * @param unit the unit id
+     * @param count the count to add
+     */
+    private void addUseCount( int unit, int count ) {
+        for( int i = 0; i < unitCount; i++ ) {
+            if( units[i] == unit ) {
+                useCounts[i] += count;
+                return;
+            }
+        }
+        if( unitCount == units.length ) {
+            units = Arrays.copyOf( units, unitCount * 2 );
+            useCounts = Arrays.copyOf( useCounts, unitCount * 2 );
+        }
+        units[unitCount] = unit;
+        useCounts[unitCount++] = count;
+    }
+
+    /**
+     * The resulting unit of the counted units. The first unit wins if no other unit is used more often.
+     * 
+     * @return the unit id or {@link Units#NONE} if nothing
+     */
+    int productUnit() {
+        if( unitCount == 0 ) {
+            return Units.NONE;
+        }
+        int unit = units[0];
+        int useCount = useCounts[0];
+        for( int i = 1; i < unitCount; i++ ) {
+            if( useCounts[i] > useCount ) {
+                unit = units[i];
+            }
+        }
+        return unit;
+    }
+
+    /**
+     * Write the value if it is a simple type.
+     * 
+     * @param formatter the CCS target
+     * @return true, if written; false, if the type has no simple value
+     */
+    boolean appendTo( CssFormatter formatter ) {
+        switch( type ) {
+            case Expression.BOOLEAN:
+                formatter.append( Boolean.toString( booleanValue ) );
+                return true;
+            case Expression.PERCENT:
+                formatter.append( doubleValue );
+                formatter.append( '%' );
+                return true;
+            case Expression.NUMBER:
+                formatter.appendValue( doubleValue, Units.name( unit, formatter ) );
+                return true;
+            case Expression.COLOR:
+                formatter.appendColor( doubleValue, null );
+                return true;
+            case Expression.RGBA:
+                double color = doubleValue;
+                if( color == 0 && Double.doubleToRawLongBits( color ) == 0 ) {
+                    formatter.append( "transparent" );
+                } else {
+                    final double alpha = alpha( color );
+                    if( alpha >= 1 ) {
+                        formatter.appendColor( color, null );
+                    } else {
+                        formatter.append( "rgba(" );
+                        formatter.append( red( color ) ).append( ',' ).space();
+                        formatter.append( green( color ) ).append( ',' ).space();
+                        formatter.append( blue( color ) ).append( ',' ).space();
+                        formatter.append( alpha ).append( ')' );
+                    }
+                }
+                return true;
+        }
+        return false;
+    }
+}
@@ -26,8 +26,6 @@
  */
 package com.inet.lib.less;
 
-import static com.inet.lib.less.ColorUtils.*;
-
 /**
  * Base expression with value formating.
  */
@@ -96,41 +94,43 @@ public void prepare( CssFormatter formatter ) {
      */
     @Override
     public void appendTo( CssFormatter formatter ) {
-        switch( getDataType( formatter ) ) {
-            case BOOLEAN:
-                formatter.append( Boolean.toString( booleanValue( formatter ) ) );
-                return;
-            case PERCENT:
-                double d = doubleValue( formatter );
-                formatter.append( d );
-                formatter.append( '%' );
+        EvaluationResult result = formatter.getEvaluationResult();
+        try {
+            evaluate( formatter, result );
+            if( result.appendTo( formatter ) ) {
                 return;
+            }
+        } finally {
+            formatter.freeEvaluationResult( result );
+        }
+        formatter.append( str );
+    }
+
+    /**
+     * Evaluate the data type, the value and the unit with a single call. Subclasses can override it to prevent the
+     * repeated evaluation of the same expression.
+     * 
+     * @param formatter
+     *            the CCS target
+     * @param result
+     *            the holder that receive the values
+     */
+    void evaluate( CssFormatter formatter, EvaluationResult result ) {
+        int type = result.type = getDataType( formatter );
+        switch( type ) {
+            case BOOLEAN:
+                result.booleanValue = booleanValue( formatter );
+                break;
             case NUMBER:
-                d = doubleValue( formatter );
-                formatter.appendValue( d, unit( formatter ) );
-                return;
-            case COLOR:
-                formatter.appendColor( doubleValue( formatter ), null );
-                return;
+                result.doubleValue = doubleValue( formatter );
+                result.unit = Units.id( unit( formatter ), formatter );
+                break;
+            case PERCENT:
             case RGBA:
-                double color = doubleValue( formatter );
-                if( color == 0 && Double.doubleToRawLongBits( color ) == 0 ) {
-                    formatter.append( "transparent" );
-                } else {
-                    final double alpha = alpha( color );
-                    if( alpha >= 1 ) {
-                        formatter.appendColor( color, null );
-                    } else {
-                        formatter.append( "rgba(" );
-                        formatter.append( red( color ) ).append( ',' ).space();
-                        formatter.append( green( color ) ).append( ',' ).space();
-                        formatter.append( blue( color ) ).append( ',' ).space();
-                        formatter.append( alpha ).append( ')' );
-                    }
-                }
-                return;
+            case COLOR:
+                result.doubleValue = doubleValue( formatter );
+                break;
         }
-        formatter.append( str );
     }
 
     /**
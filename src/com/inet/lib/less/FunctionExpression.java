@@ -101,6 +101,30 @@ public int getDataType( CssFormatter formatter ) {
         return type;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void evaluate( CssFormatter formatter, EvaluationResult result ) {
+        boolean evaluated = type == UNKNOWN;
+        int dataType = result.type = getDataType( formatter );
+        switch( dataType ) {
+            case BOOLEAN:
+            case NUMBER:
+            case PERCENT:
+            case RGBA:
+            case COLOR:
+                if( !evaluated ) {
+                    eval( formatter );
+                }
+                result.doubleValue = doubleValue;
+                result.booleanValue = booleanValue;
+                if( dataType == NUMBER ) {
+                    result.unit = Units.id( unit( formatter ), formatter );
+                }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -179,6 +203,9 @@ public String unit( CssFormatter formatter ) {
                 return "%";
             case "if":
                 return get( 1 ).unit( formatter );
+            case "image-width":
+            case "image-height":
+                return "px";
         }
         for( int i = 0; i < parameters.size(); i++ ) {
             String unit = parameters.get( i ).unit( formatter );
@@ -227,7 +254,7 @@ public void appendTo( CssFormatter formatter ) {
                                 quote = true;
                             }
                         }
-                        str = new RegExp( pattern, flags ).replace( str, replacement );
+                        str = RegExp.compile( pattern, flags ).replace( str, replacement );
                         if( quote ) {
                             str = ch + str + ch;
                         }
@@ -281,6 +308,9 @@ public void appendTo( CssFormatter formatter ) {
                 case "range":
                     range( formatter ).appendTo( formatter );
                     return;
+                case "image-size":
+                    imageSize( formatter ).appendTo( formatter );
+                    return;
                 case "calc":
                     formatter.append( super.toString() ).append( '(' );
                     SelectorUtils.appendToWithPlaceHolder( formatter, get( 0 ).stringValue( formatter ), 0, false, this );
@@ -354,7 +384,13 @@ private void eval( CssFormatter formatter ) {
                     type = NUMBER;
                     String unit = get( 1 ).stringValue( formatter );
                     Expression param = get( 0 );
-                    doubleValue = param.doubleValue( formatter ) * Operation.unitFactor( param.unit( formatter ), unit, false );
+                    EvaluationResult result = formatter.getEvaluationResult();
+                    try {
+                        param.evaluate( formatter, result );
+                        doubleValue = result.doubleValue( param, formatter ) * Units.factor( result.unit( param, formatter ), Units.id( unit, formatter ), false );
+                    } finally {
+                        formatter.freeEvaluationResult( result );
+                    }
                     return;
                 case "abs":
                     type = getNumberDataType( formatter );
@@ -391,19 +427,33 @@ private void eval( CssFormatter formatter ) {
                 case "min":
                     type = NUMBER;
                     doubleValue = get( 0 ).doubleValue( formatter );
-                    unit = unit( formatter );
-                    for( int i = 1; i < parameters.size(); i++ ) {
-                        param = parameters.get( i );
-                        doubleValue = Math.min( doubleValue, param.doubleValue( formatter ) / Operation.unitFactor( unit, param.unit( formatter ), true ) );
+                    int unitId = Units.id( unit( formatter ), formatter );
+                    result = formatter.getEvaluationResult();
+                    try {
+                        for( int i = 1; i < parameters.size(); i++ ) {
+                            param = parameters.get( i );
+                            result.clear();
+                            param.evaluate( formatter, result );
+                            doubleValue = Math.min( doubleValue, result.doubleValue( param, formatter ) / Units.factor( unitId, result.unit( param, formatter ), true ) );
+                        }
+                    } finally {
+                        formatter.freeEvaluationResult( result );
                     }
                     return;
                 case "max":
                     type = NUMBER;
                     doubleValue = get( 0 ).doubleValue( formatter );
-                    unit = unit( formatter );
-                    for( int i = 1; i < parameters.size(); i++ ) {
-                        param = parameters.get( i );
-                        doubleValue = Math.max( doubleValue, param.doubleValue( formatter ) / Operation.unitFactor( unit, param.unit( formatter ), true ) );
+                    unitId = Units.id( unit( formatter ), formatter );
+                    result = formatter.getEvaluationResult();
+                    try {
+                        for( int i = 1; i < parameters.size(); i++ ) {
+                            param = parameters.get( i );
+                            result.clear();
+                            param.evaluate( formatter, result );
+                            doubleValue = Math.max( doubleValue, result.doubleValue( param, formatter ) / Units.factor( unitId, result.unit( param, formatter ), true ) );
+                        }
+                    } finally {
+                        formatter.freeEvaluationResult( result );
                     }
                     return;
                 case "sqrt":
@@ -454,8 +504,17 @@ private void eval( CssFormatter formatter ) {
                     extract( formatter );
                     return;
                 case "range":
+                case "image-size":
                     type = LIST;
                     return;
+                case "image-width":
+                    type = NUMBER;
+                    doubleValue = getImageSize( formatter )[0];
+                    return;
+                case "image-height":
+                    type = NUMBER;
+                    doubleValue = getImageSize( formatter )[1];
+                    return;
                 case "alpha":
                     type = NUMBER;
                     switch( get( 0 ).getDataType( formatter ) ) {
@@ -1023,8 +1082,8 @@ private double getColor( Expression exp, CssFormatter formatter ) {
      */
     double getRadians( CssFormatter formatter ) {
         final Expression exp = get( 0 );
-        String unit = exp.unit( formatter );
-        return exp.doubleValue( formatter ) * Operation.unitFactor( unit, "rad", false );
+        int unit = Units.id( exp.unit( formatter ), formatter );
+        return exp.doubleValue( formatter ) * Units.factor( unit, Units.RAD, false );
     }
 
     /**
@@ -1068,6 +1127,8 @@ public Operation listValue( CssFormatter formatter ) {
                 return extract( formatter ).listValue( formatter );
             case "range":
                 return range( formatter );
+            case "image-size":
+                return imageSize( formatter );
         }
         return super.listValue( formatter );
     }
@@ -1153,4 +1214,35 @@ private Operation range( CssFormatter formatter ) {
         }
         return op;
     }
+
+    /**
+     * Get the size of the image of the parameters. The first parameter is the relative URL of the less file.
+     * 
+     * @param formatter
+     *            current formatter
+     * @return the width and height in pixels
+     */
+    private double[] getImageSize( CssFormatter formatter ) {
+        return ImageSize.get( formatter, super.toString(), get( 0 ).stringValue( formatter ), UrlUtils.removeQuote( get( 1 ).stringValue( formatter ) ) );
+    }
+
+    /**
+     * Implementation of the function image-size.
+     * 
+     * @param formatter
+     *            current formatter
+     * @return the width and height as list
+     */
+    private Operation imageSize( CssFormatter formatter ) {
+        type = LIST;
+        double[] size = getImageSize( formatter );
+        Operation op = new Operation( this, ' ' );
+        StringBuilder builder = new StringBuilder();
+        for( double value : size ) {
+            builder.setLength( 0 );
+            NumberUtils.append( builder, value, true );
+            op.addOperand( new ValueExpression( this, builder.append( "px" ).toString() ) );
+        }
+        return op;
+    }
 }
@@ -28,11 +28,15 @@
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
 
 /**
- * A HashMap that hold multiple values for a single key.
+ * A HashMap that hold multiple values for a single key. A map can have a parent map. The parent is hold by reference
+ * and is never modified. On lookup the values of the parent are appended to the own values of this map, so a later
+ * added value follows the already merged parent values. Only values that the parent has added since the last lookup
+ * are merged.
  *
  * @param <K>
  *            The key type
@@ -41,14 +45,34 @@
  */
 class HashMultimap<K, V> {
 
+    /** lists with more values use a hash set to remove duplicates */
+    private static final int    LINEAR_LIMIT = 8;
+
     private final HashMap<K, List<V>> map = new HashMap<>();
 
-    private HashMultimap<K, V> parent;
+    private final HashMultimap<K, V> parent;
+
+    private HashMap<K, Merged<V>> merged;
+
+    /**
+     * The part of the parent values that is already merged for a key.
+     *
+     * @param <V>
+     *            the values type
+     */
+    private static class Merged<V> {
+        /** the list of the parent */
+        private List<V> source;
+
+        /** the count of merged values of the source, the lists only grow */
+        private int     size;
+    }
 
     /**
      * Default constructor
      */
     HashMultimap() {
+        this.parent = null;
     }
 
     /**
@@ -84,19 +108,29 @@ void add( K key, V value ) {
      */
     List<V> get( K key ) {
         List<V> result = map.get( key );
-        if( parent != null ) {
-            List<V> resultParent = parent.get( key );
-            if( result == null ) {
-                return resultParent;
-            } else if( resultParent == null ){
-                return result;
-            } else {
-                for( V value : resultParent ) {
-                    if( !result.contains( value ) ) {
-                        result.add( value );
-                    }
-                }
-            }
+        if( parent == null ) {
+            return result;
+        }
+        List<V> resultParent = parent.get( key );
+        if( result == null ) {
+            return resultParent;
+        } else if( resultParent == null ) {
+            return result;
+        }
+        if( merged == null ) {
+            merged = new HashMap<>();
+        }
+        Merged<V> state = merged.get( key );
+        if( state == null ) {
+            state = new Merged<>();
+            merged.put( key, state );
+        }
+        int from = state.source == resultParent ? state.size : 0;
+        int size = resultParent.size();
+        if( from < size ) {
+            addAllAbsent( result, from == 0 ? resultParent : resultParent.subList( from, size ) );
+            state.source = resultParent;
+            state.size = size;
         }
         return result;
     }
@@ -118,9 +152,30 @@ void addAll( HashMultimap<K, V> m ) {
                 rules = new ArrayList<>();
                 map.put( key, rules );
             }
-            for( V value : entry.getValue() ) {
-                if( !rules.contains( value ) ) {
-                    rules.add( value );
+            addAllAbsent( rules, entry.getValue() );
+        }
+    }
+
+    /**
+     * Add all values that are not already in the target.
+     * 
+     * @param target
+     *            the target list
+     * @param values
+     *            the values to add
+     */
+    private static <V> void addAllAbsent( List<V> target, List<V> values ) {
+        if( target.size() + values.size() <= LINEAR_LIMIT ) {
+            for( V value : values ) {
+                if( !target.contains( value ) ) {
+                    target.add( value );
+                }
+            }
+        } else {
+            HashSet<V> present = new HashSet<>( target );
+            for( V value : values ) {
+                if( present.add( value ) ) {
+                    target.add( value );
                 }
             }
         }
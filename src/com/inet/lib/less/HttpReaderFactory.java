@@ -0,0 +1,284 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * A ReaderFactory that read http and https URLs with timeouts and a cache. A cached content is revalidated with a
+ * conditional GET (ETag and Last-Modified), so unchanged imports are not downloaded again. The count of parallel
+ * downloads is limited. All other URLs are read like in the default ReaderFactory.
+ * <p>
+ * Typical usage: create one instance and use it for all compiles.
+ */
+public class HttpReaderFactory extends ReaderFactory {
+
+    private final BoundedCache<String, HttpEntry> cache          = new BoundedCache<>( Integer.MAX_VALUE, 32 * 1024 * 1024, entry -> 128 + entry.content.length );
+
+    private volatile int                          connectTimeout = 10000;
+
+    private volatile int                          readTimeout    = 30000;
+
+    private volatile Semaphore                    permits        = new Semaphore( 8 );
+
+    /**
+     * Set the timeout for opening a connection. The default is 10 seconds.
+     * 
+     * @param millis
+     *            the timeout in milliseconds, 0 means infinite
+     */
+    public void setConnectTimeout( int millis ) {
+        this.connectTimeout = millis;
+    }
+
+    /**
+     * Set the timeout for reading from a connection. The default is 30 seconds.
+     * 
+     * @param millis
+     *            the timeout in milliseconds, 0 means infinite
+     */
+    public void setReadTimeout( int millis ) {
+        this.readTimeout = millis;
+    }
+
+    /**
+     * Set the maximum count of parallel downloads. The default is 8.
+     * 
+     * @param count
+     *            the count, must be greater 0
+     */
+    public void setMaxParallelFetches( int count ) {
+        if( count <= 0 ) {
+            throw new IllegalArgumentException( "count must be greater 0: " + count );
+        }
+        this.permits = new Semaphore( count );
+    }
+
+    /**
+     * Set the memory limit of the cache. The default is 32 MB.
+     * 
+     * @param bytes
+     *            the limit in bytes
+     */
+    public void setMaxSize( long bytes ) {
+        cache.setMaxWeight( bytes );
+    }
+
+    /**
+     * Remove all cached content.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressFBWarnings( value = "URLCONNECTION_SSRF_FD", justification = "Caller of JLessC must check this" )
+    public InputStream openStream( URL url ) throws IOException {
+        String protocol = url.getProtocol();
+        if( !"http".equals( protocol ) && !"https".equals( protocol ) ) {
+            return super.openStream( url );
+        }
+        Semaphore permits = this.permits;
+        try {
+            permits.acquire();
+        } catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( url.toString() );
+        }
+        try {
+            return new ByteArrayInputStream( fetch( url ) );
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Get the stamp of a cached http or https URL. It is the URL and the ETag or the Last-Modified header of the last
+     * download or revalidation. A changed content get a new stamp with the next read of the URL.
+     * 
+     * @param url
+     *            the url, not null
+     * @return the stamp or null if the content is not cached
+     */
+    @Override
+    public String getStamp( URL url ) {
+        String protocol = url.getProtocol();
+        if( !"http".equals( protocol ) && !"https".equals( protocol ) ) {
+            return super.getStamp( url );
+        }
+        String key = url.toString();
+        HttpEntry entry = cache.get( key );
+        if( entry == null ) {
+            return null;
+        }
+        return entry.etag != null ? key + "|" + entry.etag : key + "||" + entry.lastModified;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Download the content or revalidate the cached content.
+     * 
+     * @param url
+     *            the http or https URL
+     * @return the content
+     * @throws IOException
+     *             If any I/O error occur or the server does not response with success.
+     */
+    private byte[] fetch( URL url ) throws IOException {
+        String key = url.toString();
+        HttpEntry entry = cache.get( key );
+        URLConnection connection = url.openConnection();
+        if( !(connection instanceof HttpURLConnection) ) {
+            return readAll( connection.getInputStream() );
+        }
+        HttpURLConnection http = (HttpURLConnection)connection;
+        http.setConnectTimeout( connectTimeout );
+        http.setReadTimeout( readTimeout );
+        http.setUseCaches( false );
+        http.setRequestProperty( "Accept-Encoding", "gzip" );
+        if( entry != null ) {
+            if( entry.etag != null ) {
+                http.setRequestProperty( "If-None-Match", entry.etag );
+            }
+            if( entry.lastModified != null ) {
+                http.setRequestProperty( "If-Modified-Since", entry.lastModified );
+            }
+        }
+        int status = http.getResponseCode();
+        if( status == HttpURLConnection.HTTP_NOT_MODIFIED && entry != null ) {
+            readAll( http.getInputStream() ); // consume the empty body so that the connection can be reused
+            return entry.content;
+        }
+        if( status == HttpURLConnection.HTTP_NOT_FOUND || status == HttpURLConnection.HTTP_GONE ) {
+            discard( http );
+            throw new FileNotFoundException( key );
+        }
+        if( status < 200 || status >= 300 ) {
+            discard( http );
+            throw new IOException( "Server returned HTTP response code " + status + " for URL: " + key );
+        }
+        InputStream input = http.getInputStream();
+        if( "gzip".equalsIgnoreCase( http.getContentEncoding() ) ) {
+            input = new GZIPInputStream( input );
+        }
+        byte[] content = readAll( input );
+        String etag = http.getHeaderField( "ETag" );
+        String lastModified = http.getHeaderField( "Last-Modified" );
+        if( etag != null || lastModified != null ) {
+            cache.put( key, new HttpEntry( content, etag, lastModified ) );
+        }
+        return content;
+    }
+
+    /**
+     * Read and close the error stream so that the connection can be reused.
+     * 
+     * @param http
+     *            the connection
+     */
+    private static void discard( HttpURLConnection http ) {
+        try {
+            InputStream error = http.getErrorStream();
+            if( error != null ) {
+                readAll( error );
+            }
+        } catch( IOException ex ) {
+            // ignore, the connection is not reused
+        }
+    }
+
+    /**
+     * Read the complete content of a stream and close it.
+     * 
+     * @param input
+     *            the stream
+     * @return the content
+     * @throws IOException
+     *             If any I/O error occur on reading.
+     */
+    private static byte[] readAll( InputStream input ) throws IOException {
+        try( InputStream in = input ) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while( (count = in.read( buffer )) > 0 ) {
+                out.write( buffer, 0, count );
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * A cached content with the validators of the server.
+     */
+    private static class HttpEntry {
+
+        private final byte[] content;
+
+        private final String etag;
+
+        private final String lastModified;
+
+        /**
+         * Create a new entry.
+         * 
+         * @param content
+         *            the content
+         * @param etag
+         *            the ETag header or null
+         * @param lastModified
+         *            the Last-Modified header or null
+         */
+        private HttpEntry( byte[] content, String etag, String lastModified ) {
+            this.content = content;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of the functions image-size, image-width and image-height. Only the header of the images is read.
+ */
+class ImageSize {
+
+    /** the sizes of images with a file stamp, shared between compiles */
+    private static final BoundedCache<String, double[]> SIZES         = new BoundedCache<>( 4096 );
+
+    /** the count of bytes that are searched for the svg element */
+    private static final int                            SVG_HEADER    = 8192;
+
+    private static final Pattern                        SVG_ATTRIBUTE = Pattern.compile( "\\s(width|height|viewBox)\\s*=\\s*([\"'])(.*?)\\2" );
+
+    /**
+     * Get the size of an image.
+     * 
+     * @param formatter current formatter
+     * @param function the name of the called function for error messages
+     * @param relativeUrlStr relative URL of the less script
+     * @param urlStr the URL of the image without quotes
+     * @return the width and height in pixel
+     */
+    static double[] get( CssFormatter formatter, String function, String relativeUrlStr, String urlStr ) {
+        String key;
+        String stamp = null;
+        try {
+            URL url = UrlUtils.getUrl( formatter, relativeUrlStr, urlStr );
+            key = url.toString();
+            stamp = formatter.getReaderFactory().getCacheKey( url );
+        } catch( IOException ex ) {
+            key = relativeUrlStr + '|' + urlStr;
+        }
+        // without a file stamp the content can change between compiles
+        HashMap<String, double[]> sizes = formatter.getImageSizes();
+        double[] size = stamp != null ? SIZES.get( stamp ) : sizes.get( key );
+        if( size != null ) {
+            return size;
+        }
+        try( InputStream input = UrlUtils.openStream( formatter, relativeUrlStr, urlStr ) ) {
+            size = read( new BufferedInputStream( input ) );
+        } catch( IOException ex ) {
+            throw new LessException( "error evaluating function `" + function + "`: " + ex.getMessage(), ex );
+        }
+        if( size == null ) {
+            throw new LessException( "error evaluating function `" + function + "`: unsupported image format of '" + urlStr + '\'' );
+        }
+        if( stamp != null ) {
+            SIZES.put( stamp, size );
+        } else {
+            sizes.put( key, size );
+        }
+        return size;
+    }
+
+    /**
+     * Read the size from the header of a PNG, GIF, JPEG or SVG image.
+     * 
+     * @param input the image data, must support mark
+     * @return the width and height or null if the format is not supported
+     * @throws IOException If any I/O errors occur on reading
+     */
+    private static double[] read( InputStream input ) throws IOException {
+        DataInputStream data = new DataInputStream( input );
+        input.mark( SVG_HEADER );
+        int b0 = input.read();
+        int b1 = input.read();
+        if( b0 == 0x89 && b1 == 'P' ) {
+            // PNG: signature (8), chunk length (4), "IHDR" (4), width (4), height (4)
+            data.skipBytes( 14 );
+            return new double[] { data.readInt(), data.readInt() };
+        }
+        if( b0 == 'G' && b1 == 'I' ) {
+            // GIF: "GIF87a" or "GIF89a", little endian width and height
+            data.skipBytes( 4 );
+            int width = data.readUnsignedByte() | data.readUnsignedByte() << 8;
+            int height = data.readUnsignedByte() | data.readUnsignedByte() << 8;
+            return new double[] { width, height };
+        }
+        if( b0 == 0xFF && b1 == 0xD8 ) {
+            return readJpeg( data );
+        }
+        input.reset();
+        return readSvg( input );
+    }
+
+    /**
+     * Read the size from the segments of a JPEG image after the start of image marker.
+     * 
+     * @param data the image data
+     * @return the width and height or null if there is no frame
+     * @throws IOException If any I/O errors occur on reading
+     */
+    private static double[] readJpeg( DataInputStream data ) throws IOException {
+        for( ;; ) {
+            int marker = data.readUnsignedByte();
+            if( marker != 0xFF ) {
+                return null;
+            }
+            do {
+                marker = data.readUnsignedByte(); // fill bytes
+            } while( marker == 0xFF );
+            if( marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7) ) {
+                continue; // markers without length
+            }
+            if( marker == 0xD9 || marker == 0xDA ) {
+                return null; // end of image or start of scan without a frame header
+            }
+            int length = data.readUnsignedShort();
+            if( marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC ) {
+                // start of frame: precision (1), height (2), width (2)
+                data.readUnsignedByte();
+                int height = data.readUnsignedShort();
+                int width = data.readUnsignedShort();
+                return new double[] { width, height };
+            }
+            for( int skip = length - 2; skip > 0; ) {
+                int count = data.skipBytes( skip );
+                if( count <= 0 ) {
+                    throw new EOFException();
+                }
+                skip -= count;
+            }
+        }
+    }
+
+    /**
+     * Read the size from the attributes of the svg element. If width or height are not in pixels then the view box is
+     * used.
+     * 
+     * @param input the image data
+     * @return the width and height or null if there is no svg element
+     * @throws IOException If any I/O errors occur on reading
+     */
+    private static double[] readSvg( InputStream input ) throws IOException {
+        byte[] bytes = new byte[SVG_HEADER];
+        int length = 0;
+        int count;
+        while( length < bytes.length && (count = input.read( bytes, length, bytes.length - length )) > 0 ) {
+            length += count;
+        }
+        String header = new String( bytes, 0, length, StandardCharsets.UTF_8 );
+        int start = header.indexOf( "<svg" );
+        if( start < 0 ) {
+            return null;
+        }
+        int end = header.indexOf( '>', start );
+        if( end < 0 ) {
+            end = header.length();
+        }
+        double width = Double.NaN;
+        double height = Double.NaN;
+        double[] viewBox = null;
+        Matcher matcher = SVG_ATTRIBUTE.matcher( header ).region( start + 4, end );
+        while( matcher.find() ) {
+            String value = matcher.group( 3 ).trim();
+            switch( matcher.group( 1 ) ) {
+                case "width":
+                    width = parsePixel( value );
+                    break;
+                case "height":
+                    height = parsePixel( value );
+                    break;
+                default:
+                    String[] values = value.split( "[\\s,]+" );
+                    if( values.length == 4 ) {
+                        try {
+                            viewBox = new double[] { Double.parseDouble( values[2] ), Double.parseDouble( values[3] ) };
+                        } catch( NumberFormatException ex ) {
+                            // invalid view box
+                        }
+                    }
+            }
+        }
+        if( Double.isNaN( width ) || Double.isNaN( height ) ) {
+            if( viewBox == null ) {
+                return null;
+            }
+            if( Double.isNaN( width ) && Double.isNaN( height ) ) {
+                return viewBox;
+            }
+            // scale the view box with the aspect ratio
+            return Double.isNaN( width ) ? new double[] { height * viewBox[0] / viewBox[1], height } : new double[] { width, width * viewBox[1] / viewBox[0] };
+        }
+        return new double[] { width, height };
+    }
+
+    /**
+     * Parse a pixel value of a svg attribute.
+     * 
+     * @param value the value
+     * @return the pixels or NaN if it has another unit
+     */
+    private static double parsePixel( String value ) {
+        if( value.endsWith( "px" ) ) {
+            value = value.substring( 0, value.length() - 2 ).trim();
+        }
+        try {
+            return Double.parseDouble( value );
+        } catch( NumberFormatException ex ) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+/**
+ * Read the files of static imports in parallel before the parser reach it. The less data is only scanned for
+ * <code>@import</code> statements with constant file names outside of comments and strings. Imports with variables are
+ * read later by the parser. An import inside a guard or a mixin is read also if it is never used.
+ */
+class ImportPrefetcher {
+
+    /** keywords, quoted or unquoted file name */
+    private static final Pattern                                IMPORT      = Pattern.compile( "@import\\s*(?:\\(([^)]*)\\))?\\s*(?:url\\(\\s*)?(?:\"([^\"]*)\"|'([^']*)'|([^\\s;)'\"]+))" );
+
+    /** the maximum count of files that are read */
+    private static final int                                    MAX_IMPORTS = 1000;
+
+    private final ReaderFactory                                 readerFactory;
+
+    private final ConcurrentHashMap<String, FutureTask<String>> imports     = new ConcurrentHashMap<>();
+
+    private volatile boolean                                    cancelled;
+
+    /**
+     * Create a new instance.
+     * 
+     * @param readerFactory
+     *            the factory to read the imports
+     */
+    ImportPrefetcher( ReaderFactory readerFactory ) {
+        this.readerFactory = readerFactory;
+    }
+
+    /**
+     * Search for imports and start reading them.
+     * 
+     * @param baseURL
+     *            the URL of the less data
+     * @param lessData
+     *            the less data
+     */
+    void scan( URL baseURL, CharSequence lessData ) {
+        Matcher matcher = IMPORT.matcher( lessData );
+        int length = lessData.length();
+        for( int i = 0; i < length && !cancelled && imports.size() < MAX_IMPORTS; i++ ) {
+            char ch = lessData.charAt( i );
+            switch( ch ) {
+                case '/':
+                    if( i + 1 < length ) {
+                        switch( lessData.charAt( i + 1 ) ) {
+                            case '/':
+                                i = skipTo( lessData, i + 2, '\n' );
+                                break;
+                            case '*':
+                                for( i += 2; i + 1 < length && (lessData.charAt( i ) != '*' || lessData.charAt( i + 1 ) != '/'); i++ ) {
+                                    // skip block comment
+                                }
+                                i++;
+                                break;
+                        }
+                    }
+                    break;
+                case '"':
+                case '\'':
+                    for( i++; i < length && lessData.charAt( i ) != ch; i++ ) {
+                        if( lessData.charAt( i ) == '\\' ) {
+                            i++;
+                        }
+                    }
+                    break;
+                case '(':
+                    if( i >= 3 && lessData.subSequence( i - 3, i ).toString().equalsIgnoreCase( "url" ) ) {
+                        i = skipTo( lessData, i + 1, ')' ); // an unquoted URL can contain a double slash
+                    }
+                    break;
+                case '@':
+                    matcher.region( i, length );
+                    if( matcher.lookingAt() ) {
+                        prefetch( baseURL, matcher );
+                        i = matcher.end() - 1;
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Search a character.
+     * 
+     * @param lessData
+     *            the less data
+     * @param start
+     *            the start position
+     * @param ch
+     *            the searched character
+     * @return the position of the character or the length of the data
+     */
+    private static int skipTo( CharSequence lessData, int start, char ch ) {
+        int length = lessData.length();
+        int i = start;
+        while( i < length && lessData.charAt( i ) != ch ) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Start reading the file of a found import statement.
+     * 
+     * @param baseURL
+     *            the URL of the less data
+     * @param matcher
+     *            the matcher of the import statement
+     */
+    private void prefetch( URL baseURL, Matcher matcher ) {
+        String keywords = matcher.group( 1 );
+        String filename = matcher.group( 2 );
+        if( filename == null ) {
+            filename = matcher.group( 3 );
+            if( filename == null ) {
+                filename = matcher.group( 4 );
+            }
+        }
+        if( filename.contains( "@{" ) ) {
+            return; // is resolved later
+        }
+        boolean isCss = false;
+        boolean isLess = false;
+        boolean isInline = false;
+        if( keywords != null ) {
+            for( String keyword : keywords.split( "," ) ) {
+                switch( keyword.trim() ) {
+                    case "inline":
+                        isInline = true;
+                        break;
+                    case "less":
+                        isLess = true;
+                        isCss = false;
+                        break;
+                    case "css":
+                        isCss = true;
+                        isLess = false;
+                        break;
+                }
+            }
+        }
+        // the same rules as in LessParser.importFile
+        if( !isLess && !isInline && (isCss || filename.endsWith( "css" ) || filename.contains( "css?" )) ) {
+            return;
+        }
+        try {
+            URL url = new URL( baseURL, filename );
+            if( !isLess && !isInline && url.getPath().endsWith( "css" ) ) {
+                return;
+            }
+            if( LessParser.isLocalFile( url ) && filename.lastIndexOf( '.' ) <= filename.lastIndexOf( '/' ) ) {
+                url = new URL( baseURL, filename + ".less" );
+            }
+            prefetch( url, !isInline );
+        } catch( IOException ex ) {
+            // the parser reports the error if the import is used
+        }
+    }
+
+    /**
+     * Start reading a file if it is not already read.
+     * 
+     * @param url
+     *            the URL of the file
+     * @param scan
+     *            true, if the content should be scanned for more imports
+     */
+    private void prefetch( URL url, boolean scan ) {
+        String key = url.toString();
+        if( cancelled || imports.containsKey( key ) ) {
+            return;
+        }
+        FutureTask<String> task = new FutureTask<>( () -> {
+            String content = read( url );
+            if( scan ) {
+                scan( url, content );
+            }
+            return content;
+        } );
+        if( imports.putIfAbsent( key, task ) == null ) {
+            IoExecutor.get().execute( task );
+            if( cancelled ) {
+                task.cancel( false ); // cancel() was called concurrently
+            }
+        }
+    }
+
+    /**
+     * Read the complete content of a file with the reader factory.
+     * 
+     * @param url
+     *            the URL of the file
+     * @return the content
+     * @throws IOException
+     *             If any I/O error occur on reading the URL.
+     */
+    private String read( URL url ) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        try( Reader reader = readerFactory.create( url ) ) {
+            char[] buffer = new char[8192];
+            int count;
+            while( (count = reader.read( buffer )) > 0 ) {
+                builder.append( buffer, 0, count );
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Get a reader for an import if it was prefetched. If the read is not started then it runs on the current thread,
+     * else it waits until the read is finished.
+     * 
+     * @param url
+     *            the URL of the import
+     * @return the reader or null if not prefetched
+     * @throws IOException
+     *             If any I/O error occur on reading the URL.
+     */
+    @Nullable
+    Reader open( URL url ) throws IOException {
+        FutureTask<String> task = imports.get( url.toString() );
+        if( task == null || task.isCancelled() ) {
+            return null;
+        }
+        task.run(); // does nothing if the task is already running or finished
+        try {
+            return new StringReader( task.get() );
+        } catch( ExecutionException ex ) {
+            Throwable cause = ex.getCause();
+            if( cause instanceof IOException ) {
+                throw (IOException)cause;
+            }
+            if( cause instanceof RuntimeException ) {
+                throw (RuntimeException)cause;
+            }
+            throw new LessException( cause );
+        } catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Cancel all reads that are not started. Running reads does not start new reads.
+     */
+    void cancel() {
+        cancelled = true;
+        for( Future<String> future : imports.values() ) {
+            future.cancel( false );
+        }
+    }
+}
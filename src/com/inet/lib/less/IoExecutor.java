@@ -0,0 +1,115 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The shared executor for reading resources in parallel. On Java 21 and higher virtual threads are used, else a small
+ * pool of daemon threads.
+ */
+class IoExecutor {
+
+    /** the count of threads if there are no virtual threads */
+    private static final int       POOL_THREADS = 8;
+
+    private static ExecutorService executor;
+
+    private static Executor        compileExecutor;
+
+    /**
+     * Get the shared executor.
+     * 
+     * @return the executor
+     */
+    static synchronized ExecutorService get() {
+        if( executor == null ) {
+            executor = createVirtualThreadExecutor();
+            if( executor == null ) {
+                executor = createPool( POOL_THREADS, "jlessc I/O" );
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Get the default executor for asynchronous compiles. On Java 21 and higher it use virtual threads, else a pool of
+     * daemon threads with one thread per processor. The common fork join pool is not used because a compile blocks on
+     * I/O and the parallel loops of the compile run in the common pool.
+     * 
+     * @return the executor
+     */
+    static synchronized Executor getCompileExecutor() {
+        if( compileExecutor == null ) {
+            compileExecutor = createVirtualThreadExecutor();
+            if( compileExecutor == null ) {
+                compileExecutor = createPool( Runtime.getRuntime().availableProcessors(), "jlessc compile" );
+            }
+        }
+        return compileExecutor;
+    }
+
+    /**
+     * Create a pool of daemon threads. Idle threads are terminated after 30 seconds.
+     * 
+     * @param threads
+     *            the maximum count of threads
+     * @param name
+     *            the name of the threads
+     * @return the executor
+     */
+    private static ExecutorService createPool( int threads, String name ) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor( threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread( runnable, name );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        pool.allowCoreThreadTimeOut( true );
+        return pool;
+    }
+
+    /**
+     * Create an executor with a virtual thread per task. The method is called via reflection because it is only
+     * available since Java 21.
+     * 
+     * @return the executor or null if not available
+     */
+    static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" );
+            return (ExecutorService)method.invoke( null );
+        } catch( Throwable th ) {
+            return null; // Java 20 or older
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * A small pool of JavaScript engines. The start of a script engine is expensive. Therefore the engines and the compiled
+ * scripts are reused. An engine is used by only one thread at a time. Every evaluation runs with a new context and new
+ * bindings so that no global variables leak from one compile to another.
+ */
+final class JavaScriptEngine {
+
+    /** count of compiled scripts per engine */
+    private static final int                            MAX_SCRIPTS = 128;
+
+    /** count of idle engines that are hold */
+    private static final int                            MAX_IDLE    = Runtime.getRuntime().availableProcessors();
+
+    private static final ConcurrentLinkedQueue<JavaScriptEngine> IDLE = new ConcurrentLinkedQueue<>();
+
+    private final ScriptEngine                          engine;
+
+    private final String                                factories;
+
+    private final LinkedHashMap<String, CompiledScript> scripts     = new LinkedHashMap<String, CompiledScript>( 16, 0.75F, true ) {
+        @Override
+        protected boolean removeEldestEntry( Map.Entry<String, CompiledScript> eldest ) {
+            return size() > MAX_SCRIPTS;
+        }
+    };
+
+    /**
+     * Create a new engine.
+     */
+    private JavaScriptEngine() {
+        ScriptEngineManager factory = new ScriptEngineManager( getClass().getClassLoader() );
+        engine = factory.getEngineByName( "JavaScript" );
+        factories = engine == null ? String.valueOf( factory.getEngineFactories() ) : null;
+    }
+
+    /**
+     * Execute a script with an idle engine of the pool.
+     * 
+     * @param script
+     *            the script without the backticks
+     * @param formatter
+     *            the formatter with a reference to the variables of the current scope
+     * @param expr
+     *            the JavaScript expression
+     * @return the result of the script
+     * @throws ScriptException
+     *             if the script has an error
+     */
+    @SuppressFBWarnings( value = "SCRIPT_ENGINE_INJECTION", justification = "Caller of JLessC must check this" )
+    static Object eval( String script, CssFormatter formatter, JavaScriptExpression expr ) throws ScriptException {
+        JavaScriptEngine js = IDLE.poll();
+        if( js == null ) {
+            js = new JavaScriptEngine();
+        }
+        ScriptEngine engine = js.engine;
+        if( engine == null ) {
+            IDLE.offer( js );
+            throw expr.createException( "No JavaScript engine available: " + js.factories );
+        }
+        try {
+            JavaScriptContext context = new JavaScriptContext( formatter, expr );
+            if( engine instanceof Compilable ) {
+                CompiledScript compiled = js.scripts.get( script );
+                if( compiled == null ) {
+                    compiled = ((Compilable)engine).compile( script );
+                    js.scripts.put( script, compiled );
+                }
+                return compiled.eval( context );
+            }
+            return engine.eval( script, context );
+        } finally {
+            if( IDLE.size() < MAX_IDLE ) {
+                IDLE.offer( js );
+            }
+        }
+    }
+}
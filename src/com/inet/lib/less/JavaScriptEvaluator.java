@@ -0,0 +1,525 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+import javax.annotation.Nullable;
+
+/**
+ * A built-in evaluator for simple JavaScript expressions. It support number, string and boolean literals, the arithmetic
+ * operators, string concatenation, comparisons, the conditional operator and the string members toUpperCase(),
+ * toLowerCase(), trim() and length. Any other script is rejected and must be executed with a script engine.
+ */
+final class JavaScriptEvaluator {
+
+    /** Thrown if the script is not in the supported subset. */
+    private static final RuntimeException UNSUPPORTED = new RuntimeException( "unsupported", null, false, false ) {
+    };
+
+    private final String                  script;
+
+    private int                           pos;
+
+    /**
+     * Create a new instance.
+     * 
+     * @param script the script
+     */
+    private JavaScriptEvaluator( String script ) {
+        this.script = script;
+    }
+
+    /**
+     * Evaluate the script if it is in the supported subset.
+     * 
+     * @param script the script without the backticks
+     * @return a Double, String or Boolean or null if the script is not supported
+     */
+    @Nullable
+    static Object eval( String script ) {
+        JavaScriptEvaluator evaluator = new JavaScriptEvaluator( script );
+        try {
+            Object result = evaluator.conditional();
+            evaluator.skipWhitespace();
+            return evaluator.pos == script.length() ? result : null;
+        } catch( RuntimeException ex ) {
+            if( ex == UNSUPPORTED ) {
+                return null;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * condition ? value : value
+     * 
+     * @return the value
+     */
+    private Object conditional() {
+        Object value = comparison();
+        if( !consume( '?' ) ) {
+            return value;
+        }
+        boolean condition = toBoolean( value );
+        Object first = conditional();
+        expect( ':' );
+        Object second = conditional();
+        return condition ? first : second;
+    }
+
+    /**
+     * Comparison operators.
+     * 
+     * @return the value
+     */
+    private Object comparison() {
+        Object left = additive();
+        skipWhitespace();
+        String op;
+        if( script.startsWith( "===", pos ) || script.startsWith( "!==", pos ) ) {
+            op = script.substring( pos, pos + 2 );
+            pos += 3;
+        } else if( script.startsWith( "==", pos ) || script.startsWith( "!=", pos ) || script.startsWith( "<=", pos ) || script.startsWith( ">=", pos ) ) {
+            op = script.substring( pos, pos + 2 );
+            pos += 2;
+        } else if( pos < script.length() && (script.charAt( pos ) == '<' || script.charAt( pos ) == '>') ) {
+            op = script.substring( pos, pos + 1 );
+            pos++;
+        } else {
+            return left;
+        }
+        Object right = additive();
+        int cmp;
+        if( left instanceof Double && right instanceof Double ) {
+            double l = (Double)left;
+            double r = (Double)right;
+            if( Double.isNaN( l ) || Double.isNaN( r ) ) {
+                throw UNSUPPORTED;
+            }
+            cmp = Double.compare( l, r );
+            if( l == r ) {
+                cmp = 0; // -0 == 0
+            }
+        } else if( left instanceof String && right instanceof String ) {
+            cmp = ((String)left).compareTo( (String)right );
+        } else if( left instanceof Boolean && right instanceof Boolean && op.length() == 2 && op.charAt( 1 ) == '=' && op.charAt( 0 ) != '<' && op.charAt( 0 ) != '>' ) {
+            cmp = left.equals( right ) ? 0 : 1;
+        } else {
+            throw UNSUPPORTED;
+        }
+        switch( op ) {
+            case "==":
+                return cmp == 0;
+            case "!=":
+                return cmp != 0;
+            case "<":
+                return cmp < 0;
+            case ">":
+                return cmp > 0;
+            case "<=":
+                return cmp <= 0;
+            default:
+                return cmp >= 0;
+        }
+    }
+
+    /**
+     * The operators + and -.
+     * 
+     * @return the value
+     */
+    private Object additive() {
+        Object left = multiplicative();
+        do {
+            skipWhitespace();
+            if( pos >= script.length() ) {
+                return left;
+            }
+            char ch = script.charAt( pos );
+            if( ch != '+' && ch != '-' ) {
+                return left;
+            }
+            pos++;
+            Object right = multiplicative();
+            if( ch == '+' && (left instanceof String || right instanceof String) ) {
+                left = toString( left ).concat( toString( right ) );
+            } else {
+                double r = toNumber( right );
+                left = ch == '+' ? toNumber( left ) + r : toNumber( left ) - r;
+            }
+        } while( true );
+    }
+
+    /**
+     * The operators *, / and %.
+     * 
+     * @return the value
+     */
+    private Object multiplicative() {
+        Object left = unary();
+        do {
+            skipWhitespace();
+            if( pos >= script.length() ) {
+                return left;
+            }
+            char ch = script.charAt( pos );
+            if( ch != '*' && ch != '/' && ch != '%' ) {
+                return left;
+            }
+            pos++;
+            double l = toNumber( left );
+            double r = toNumber( unary() );
+            left = ch == '*' ? l * r : ch == '/' ? l / r : l % r;
+        } while( true );
+    }
+
+    /**
+     * The unary operators -, + and !.
+     * 
+     * @return the value
+     */
+    private Object unary() {
+        if( consume( '-' ) ) {
+            return -toNumber( unary() );
+        }
+        if( consume( '+' ) ) {
+            return toNumber( unary() );
+        }
+        if( consume( '!' ) ) {
+            return !toBoolean( unary() );
+        }
+        return member();
+    }
+
+    /**
+     * A primary value with optional string members.
+     * 
+     * @return the value
+     */
+    private Object member() {
+        Object value = primary();
+        while( consume( '.' ) ) {
+            if( !(value instanceof String) ) {
+                throw UNSUPPORTED;
+            }
+            String str = (String)value;
+            String name = identifier();
+            if( "length".equals( name ) ) {
+                value = (double)str.length();
+                continue;
+            }
+            expect( '(' );
+            expect( ')' );
+            switch( name ) {
+                case "toUpperCase":
+                    value = str.toUpperCase( Locale.ROOT );
+                    break;
+                case "toLowerCase":
+                    value = str.toLowerCase( Locale.ROOT );
+                    break;
+                case "trim":
+                    value = str.trim();
+                    break;
+                default:
+                    throw UNSUPPORTED;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * A literal or an expression in parentheses.
+     * 
+     * @return the value
+     */
+    private Object primary() {
+        skipWhitespace();
+        if( pos >= script.length() ) {
+            throw UNSUPPORTED;
+        }
+        char ch = script.charAt( pos );
+        switch( ch ) {
+            case '(':
+                pos++;
+                Object value = conditional();
+                expect( ')' );
+                return value;
+            case '\"':
+            case '\'':
+                return string( ch );
+            case '.':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                return number();
+        }
+        String name = identifier();
+        switch( name ) {
+            case "true":
+                return Boolean.TRUE;
+            case "false":
+                return Boolean.FALSE;
+            default:
+                throw UNSUPPORTED;
+        }
+    }
+
+    /**
+     * A decimal number literal.
+     * 
+     * @return the value
+     */
+    private Double number() {
+        int start = pos;
+        int length = script.length();
+        if( script.charAt( pos ) == '0' && pos + 1 < length && Character.isLetterOrDigit( script.charAt( pos + 1 ) ) ) {
+            throw UNSUPPORTED; // hex, octal, legacy octal or binary
+        }
+        while( pos < length && isDigit( script.charAt( pos ) ) ) {
+            pos++;
+        }
+        if( pos < length && script.charAt( pos ) == '.' ) {
+            pos++;
+            while( pos < length && isDigit( script.charAt( pos ) ) ) {
+                pos++;
+            }
+        }
+        if( pos < length && (script.charAt( pos ) == 'e' || script.charAt( pos ) == 'E') ) {
+            pos++;
+            if( pos < length && (script.charAt( pos ) == '+' || script.charAt( pos ) == '-') ) {
+                pos++;
+            }
+            while( pos < length && isDigit( script.charAt( pos ) ) ) {
+                pos++;
+            }
+        }
+        if( pos < length && Character.isJavaIdentifierPart( script.charAt( pos ) ) ) {
+            throw UNSUPPORTED;
+        }
+        try {
+            return Double.valueOf( script.substring( start, pos ) );
+        } catch( NumberFormatException ex ) {
+            throw UNSUPPORTED;
+        }
+    }
+
+    /**
+     * A string literal.
+     * 
+     * @param quote the quote character
+     * @return the value
+     */
+    private String string( char quote ) {
+        StringBuilder builder = new StringBuilder();
+        int length = script.length();
+        for( pos++; pos < length; pos++ ) {
+            char ch = script.charAt( pos );
+            if( ch == quote ) {
+                pos++;
+                return builder.toString();
+            }
+            switch( ch ) {
+                case '\\':
+                    if( ++pos >= length ) {
+                        throw UNSUPPORTED;
+                    }
+                    ch = script.charAt( pos );
+                    switch( ch ) {
+                        case '\\':
+                        case '\'':
+                        case '\"':
+                            break;
+                        case 'n':
+                            ch = '\n';
+                            break;
+                        case 't':
+                            ch = '\t';
+                            break;
+                        default:
+                            throw UNSUPPORTED;
+                    }
+                    break;
+                case '\n':
+                case '\r':
+                    throw UNSUPPORTED;
+            }
+            builder.append( ch );
+        }
+        throw UNSUPPORTED;
+    }
+
+    /**
+     * An identifier.
+     * 
+     * @return the name
+     */
+    private String identifier() {
+        skipWhitespace();
+        int start = pos;
+        while( pos < script.length() && Character.isJavaIdentifierPart( script.charAt( pos ) ) ) {
+            pos++;
+        }
+        if( start == pos ) {
+            throw UNSUPPORTED;
+        }
+        return script.substring( start, pos );
+    }
+
+    /**
+     * Skip whitespace and consume the character if it is the next.
+     * 
+     * @param ch the expected character
+     * @return true, if consumed
+     */
+    private boolean consume( char ch ) {
+        skipWhitespace();
+        if( pos < script.length() && script.charAt( pos ) == ch ) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consume the character or reject the script.
+     * 
+     * @param ch the expected character
+     */
+    private void expect( char ch ) {
+        if( !consume( ch ) ) {
+            throw UNSUPPORTED;
+        }
+    }
+
+    /**
+     * Skip the whitespace.
+     */
+    private void skipWhitespace() {
+        while( pos < script.length() ) {
+            switch( script.charAt( pos ) ) {
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                    pos++;
+                    continue;
+            }
+            return;
+        }
+    }
+
+    /**
+     * If the character is a decimal digit.
+     * 
+     * @param ch the character
+     * @return true, if digit
+     */
+    private static boolean isDigit( char ch ) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    /**
+     * The value as number. Only numbers are supported, the JavaScript conversion of other types is not implemented.
+     * 
+     * @param value the value
+     * @return the number
+     */
+    private static double toNumber( Object value ) {
+        if( value instanceof Double ) {
+            return (Double)value;
+        }
+        throw UNSUPPORTED;
+    }
+
+    /**
+     * The value as boolean. Only booleans are supported.
+     * 
+     * @param value the value
+     * @return the boolean
+     */
+    private static boolean toBoolean( Object value ) {
+        if( value instanceof Boolean ) {
+            return (Boolean)value;
+        }
+        throw UNSUPPORTED;
+    }
+
+    /**
+     * The string value with the JavaScript number formatting. Numbers that JavaScript write with exponent are not
+     * supported.
+     * 
+     * @param value the value
+     * @return the string
+     */
+    private static String toString( Object value ) {
+        if( value instanceof Double ) {
+            double d = (Double)value;
+            if( d == 0 ) {
+                return "0";
+            }
+            double abs = Math.abs( d );
+            if( Double.isNaN( d ) || abs < 1e-6 || abs >= 1e21 ) {
+                throw UNSUPPORTED;
+            }
+            if( abs < 0x1p53 && d == (long)d ) {
+                // exact integer, larger values must be rounded like JavaScript
+                return Long.toString( (long)d );
+            }
+            return shortest( d ).stripTrailingZeros().toPlainString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * The shortest decimal that is read back as the same double like in JavaScript. Double.toString() is not the
+     * shortest form on older Java versions.
+     * 
+     * @param d a finite value
+     * @return the decimal
+     */
+    private static BigDecimal shortest( double d ) {
+        BigDecimal exact = new BigDecimal( d );
+        for( int precision = 1; precision < 17; precision++ ) {
+            BigDecimal rounded = exact.round( new MathContext( precision, RoundingMode.HALF_EVEN ) );
+            if( rounded.doubleValue() == d ) {
+                return rounded;
+            }
+        }
+        return exact.round( new MathContext( 17, RoundingMode.HALF_EVEN ) );
+    }
+}
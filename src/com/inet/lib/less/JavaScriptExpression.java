@@ -29,11 +29,6 @@
 import java.util.Collection;
 import java.util.Map;
 
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-
 /**
  * An expression with JavaScript.
  */
@@ -124,7 +119,6 @@ public Operation listValue( CssFormatter formatter ) {
      * Execute the JavaScript 
      * @param formatter current formatter
      */
-    @SuppressFBWarnings( value = "SCRIPT_ENGINE_INJECTION", justification = "Caller of JLessC must check this" )
     private void eval( CssFormatter formatter ) {
         try {
             String script = toString();
@@ -135,14 +129,10 @@ private void eval( CssFormatter formatter ) {
             latestScript = script;
             script = script.substring( 1, script.length() - 1 );
 
-            ScriptEngineManager factory = new ScriptEngineManager( getClass().getClassLoader() );
-            ScriptEngine engine = factory.getEngineByName( "JavaScript" );
-            if( engine == null ) {
-                throw createException( "No JavaScript engine available: " + factory.getEngineFactories() );
+            result = JavaScriptEvaluator.eval( script );
+            if( result == null ) {
+                result = JavaScriptEngine.eval( script, formatter, this );
             }
-            engine.setContext( new JavaScriptContext( formatter, this ) );
-
-            result = engine.eval( script );
             if( result instanceof Number ) {
                 type = NUMBER;
             } else if( result instanceof Boolean ) {
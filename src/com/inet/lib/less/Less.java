@@ -34,7 +34,9 @@
 import java.nio.file.Files;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nonnull;
 
@@ -55,6 +57,19 @@ public class Less {
      */
     public static final String REWRITE_URLS = "rewrite-urls";
 
+    /**
+     * Key for coalesce option. true, if concurrent compiles with the same base URL, less data, options and ReaderFactory
+     * should share one compile. A waiting caller receives the same CSS or its own LessException. Compiles that are
+     * started inside a running compile are never coalesced.
+     */
+    public static final String COALESCE     = "coalesce";
+
+    /**
+     * The ReaderFactory if the caller does not set one. It has no state and is shared so that identical compiles can
+     * be coalesced.
+     */
+    private static final ReaderFactory DEFAULT_READER_FACTORY = new ReaderFactory();
+
     /**
      * A map with custom less functions 
      */
@@ -77,7 +92,7 @@ public class Less {
      *            if any error occur on compiling.
      */
     public static String compile( URL baseURL, String lessData, boolean compress ) throws LessException {
-        return compile( baseURL, lessData, compress, new ReaderFactory() );
+        return compile( baseURL, lessData, compress, DEFAULT_READER_FACTORY );
     }
 
     /**
@@ -114,7 +129,7 @@ public static String compile( URL baseURL, String lessData, boolean compress, Re
      *            if any error occur on compiling.
      */
     public static String compile( URL baseURL, String lessData,  Map<String, String> options ) throws LessException {
-        return compile( baseURL, lessData, options, new ReaderFactory() );
+        return compile( baseURL, lessData, options, DEFAULT_READER_FACTORY );
     }
 
     /**
@@ -133,16 +148,90 @@ public static String compile( URL baseURL, String lessData,  Map<String, String>
      *             if any error occur on compiling.
      */
     public static String compile( URL baseURL, String lessData, Map<String, String> options, ReaderFactory readerFactory ) throws LessException {
+        Map<String, String> opts = options == null ? Collections.<String, String>emptyMap() : options;
+        return SingleFlight.compile( baseURL, lessData, opts, readerFactory, () -> compileImpl( baseURL, lessData, opts, readerFactory ) );
+    }
+
+    /**
+     * Compile the less data from a string asynchronously. The compile runs on virtual threads with Java 21 and higher,
+     * else on a shared pool of daemon threads.
+     * 
+     * @param baseURL
+     *            the baseURL for import of external less data.
+     * @param lessData
+     *            the input less data
+     * @param compress
+     *            true, if the CSS data should be compressed without any extra formating characters.
+     * @return the future of the resulting CSS, completes exceptionally with a LessException on errors
+     */
+    public static CompletableFuture<String> compileAsync( URL baseURL, String lessData, boolean compress ) {
+        return compileAsync( baseURL, lessData, Collections.singletonMap( COMPRESS, Boolean.toString( compress ) ), DEFAULT_READER_FACTORY );
+    }
+
+    /**
+     * Compile the less data from a string asynchronously. The compile runs on virtual threads with Java 21 and higher,
+     * else on a shared pool of daemon threads.
+     * 
+     * @param baseURL
+     *            the baseURL for import of external less data.
+     * @param lessData
+     *            the input less data
+     * @param options
+     *            some optional options, see constants for details
+     * @param readerFactory
+     *            A factory for the readers for imports.
+     * @return the future of the resulting CSS, completes exceptionally with a LessException on errors
+     */
+    public static CompletableFuture<String> compileAsync( URL baseURL, String lessData, Map<String, String> options, ReaderFactory readerFactory ) {
+        return compileAsync( baseURL, lessData, options, readerFactory, IoExecutor.getCompileExecutor() );
+    }
+
+    /**
+     * Compile the less data from a string asynchronously. Imports and resources are read in parallel on a separate I/O
+     * executor. With the option {@link #COALESCE} concurrent calls with the same parameters share one compile.
+     * 
+     * @param baseURL
+     *            the baseURL for import of external less data.
+     * @param lessData
+     *            the input less data
+     * @param options
+     *            some optional options, see constants for details
+     * @param readerFactory
+     *            A factory for the readers for imports.
+     * @param executor
+     *            the executor that run the compile
+     * @return the future of the resulting CSS, completes exceptionally with a LessException on errors
+     */
+    public static CompletableFuture<String> compileAsync( URL baseURL, String lessData, Map<String, String> options, ReaderFactory readerFactory, @Nonnull Executor executor ) {
+        Map<String, String> opts = options == null ? Collections.<String, String>emptyMap() : options;
+        return SingleFlight.compileAsync( baseURL, lessData, opts, readerFactory, () -> compileImpl( baseURL, lessData, opts, readerFactory ), executor );
+    }
+
+    /**
+     * Compile the less data from a string without coalescing of identical compiles.
+     * 
+     * @param baseURL
+     *            the baseURL for import of external less data.
+     * @param lessData
+     *            the input less data
+     * @param options
+     *            some optional options, not null
+     * @param readerFactory
+     *            A factory for the readers for imports.
+     * @return the resulting less data
+     * @throws LessException
+     *             if any error occur on compiling.
+     */
+    private static String compileImpl( URL baseURL, String lessData, Map<String, String> options, ReaderFactory readerFactory ) throws LessException {
+        LessParser parser = new LessParser();
         try {
-            if( options == null ) {
-                options = Collections.emptyMap();
-            }
-            LessParser parser = new LessParser();
+            parser.prefetchImports( baseURL, lessData, readerFactory );
             parser.parse( baseURL, new StringReader( lessData ), readerFactory );
 
             boolean compress = Boolean.parseBoolean( options.get( COMPRESS ) );
             CssFormatter formatter = compress ? new CompressCssFormatter() : new CssFormatter();
             parser.parseLazy( formatter );
+            parser.cancelPrefetch();
             StringBuilder builder = new StringBuilder();
             formatter.format( parser, baseURL, readerFactory, builder, options );
             return builder.toString();
@@ -150,6 +239,8 @@ public static String compile( URL baseURL, String lessData, Map<String, String>
             throw ex;
         } catch( Exception ex ) {
             throw new LessException( ex );
+        } finally {
+            parser.cancelPrefetch();
         }
     }
 
@@ -166,7 +257,7 @@ public static String compile( URL baseURL, String lessData, Map<String, String>
      */
     public static String compile( File lessFile, boolean compress ) throws IOException {
         String lessData = new String( Files.readAllBytes( lessFile.toPath() ), StandardCharsets.UTF_8 );
-        return Less.compile( lessFile.toURI().toURL(), lessData, compress, new ReaderFactory() );
+        return Less.compile( lessFile.toURI().toURL(), lessData, compress, DEFAULT_READER_FACTORY );
     }
 
     /**
@@ -187,6 +278,18 @@ public static String compile( File lessFile, boolean compress, ReaderFactory rea
         return Less.compile( lessFile.toURI().toURL(), lessData, compress, readerFactory );
     }
 
+    /**
+     * Set the memory limit of the caches for the results of data-uri, svg-gradient and colorize-image that are shared
+     * between all compiles. The default is 16 MB for every cache. A value of 0 disables the caches.
+     * 
+     * @param bytes
+     *            the limit in bytes
+     */
+    public static void setResourceCacheLimit( long bytes ) {
+        UrlUtils.setCacheLimit( bytes );
+        CustomFunctionColorizeImage.setCacheLimit( bytes );
+    }
+
     /**
      * Register a custom less function.
      * @param name the non null name
@@ -40,6 +40,9 @@ class LessExtendMap {
 
     private final HashMultimap<String, String[]>         exact;
 
+    /** all extending selectors with keyword "all", shared with the parent */
+    private final SelectorMatcher                        matcher;
+
     // use a LinkedHashSet as cache to remove duplicates and hold the original order
     private final LinkedHashSet<String>                  selectorList = new LinkedHashSet<>();
 
@@ -58,6 +61,7 @@ public SelectorTokenizer pollLast() {
     LessExtendMap() {
         all = new HashMultimap<>();
         exact = new HashMultimap<>();
+        matcher = new SelectorMatcher();
     }
 
     /**
@@ -69,6 +73,7 @@ public SelectorTokenizer pollLast() {
     LessExtendMap( LessExtendMap parent ) {
         all = new HashMultimap<>( parent.all );
         exact = new HashMultimap<>( parent.exact );
+        matcher = parent.matcher;
     }
 
     /**
@@ -87,7 +92,7 @@ void add( LessExtend lessExtend, String[] mainSelector ) {
         }
         String extendingSelector = lessExtend.getExtendingSelector();
         if( lessExtend.isAll() ) {
-            LessExtendResult extend = new LessExtendResult( mainSelector, extendingSelector );
+            LessExtendResult extend = new LessExtendResult( mainSelector, extendingSelector, matcher.add( extendingSelector ) );
             SelectorTokenizer tokenizer = tokenizers.pollLast().init( extendingSelector );
             do {
                 String token = tokenizer.next();
@@ -160,6 +165,10 @@ private void concatenateExtendsRecursive( String selector, boolean isReference,
                 }
             }
         }
+        SelectorMatcher.Matches matches = matcher.match( selector );
+        if( matches == null ) {
+            return; // the selector does not contains any extending selector
+        }
         SelectorTokenizer tokenizer = tokenizers.pollLast().init( allSelector );
         do {
             String token = tokenizer.next();
@@ -169,10 +178,11 @@ private void concatenateExtendsRecursive( String selector, boolean isReference,
             List<LessExtendResult> results = all.get( token );
             if( results != null ) {
                 for( LessExtendResult lessExtend : results ) {
-                    String extendingSelector = lessExtend.getExtendingSelector();
-                    if( selector.contains( extendingSelector ) ) {
+                    int pattern = lessExtend.getPattern();
+                    if( matches.contains( pattern ) ) {
+                        String extendingSelector = lessExtend.getExtendingSelector();
                         for( String replace : lessExtend.getSelectors() ) {
-                            String replacedSelector = selector.replace( extendingSelector, replace );
+                            String replacedSelector = matches.replace( pattern, extendingSelector, replace );
                             boolean needRecursion = selectorList.add( replacedSelector );
                             if( needRecursion && !replacedSelector.contains( extendingSelector ) ) {
                                 concatenateExtendsRecursive( replacedSelector, isReference, replace );
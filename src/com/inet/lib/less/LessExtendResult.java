@@ -35,14 +35,18 @@ class LessExtendResult {
 
     private final String extendingSelector;
 
+    private final int pattern;
+
     /**
      * Create a new instance.
      * @param mainSelector the main selectors of the extend
      * @param extendingSelector the extends selector
+     * @param pattern the id of the extending selector in the SelectorMatcher
      */
-    LessExtendResult( String[] mainSelector, String extendingSelector ) {
+    LessExtendResult( String[] mainSelector, String extendingSelector, int pattern ) {
         this.mainSelector = mainSelector;
         this.extendingSelector = extendingSelector;
+        this.pattern = pattern;
     }
 
     /**
@@ -60,4 +64,12 @@ String[] getSelectors() {
     String getExtendingSelector() {
         return extendingSelector;
     }
+
+    /**
+     * Get the id of the extending selector in the SelectorMatcher.
+     * @return the id
+     */
+    int getPattern() {
+        return pattern;
+    }
 }
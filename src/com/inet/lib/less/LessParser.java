@@ -28,17 +28,21 @@
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Paths;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Scanner;
 import java.util.StringTokenizer;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * The parser of the less stream.
@@ -72,10 +76,15 @@ class LessParser implements FormattableContainer {
 
     private ArrayDeque<Rule>            ruleStack     = new ArrayDeque<>();
 
-    private HashSet<URL>                imports       = new HashSet<>();
+    /** normalized URIs of the imported files */
+    private HashSet<String>             imports       = new HashSet<>();
 
     private List<LazyImport>            lazyImports;
 
+    private List<String[]>              dataUris;
+
+    private ImportPrefetcher            importPrefetcher;
+
     /**
      * Get the parsed rules
      * 
@@ -85,6 +94,17 @@ List<Formattable> getRules() {
         return rules;
     }
 
+    /**
+     * Get the data-uri calls with a constant URL. This can be used to load the content before formatting.
+     * 
+     * @return list of relative URL of the less file and the URL parameter, with a third element if the call has a mime
+     *         type, or null if there are no calls
+     */
+    @Nullable
+    List<String[]> getDataUris() {
+        return dataUris;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -123,6 +143,24 @@ void parse( URL baseURL, Reader input, ReaderFactory readerFactory  ) throws Mal
         parse( this );
     }
 
+    /**
+     * Start reading the files of the static imports in parallel if the reader factory is thread safe. Must be called
+     * before parse. {@link #cancelPrefetch()} must be called after the compile.
+     * 
+     * @param baseURL
+     *            the baseURL for import of external less data.
+     * @param lessData
+     *            the less input data
+     * @param readerFactory
+     *            A factory for the readers for imports.
+     */
+    void prefetchImports( URL baseURL, String lessData, ReaderFactory readerFactory ) {
+        if( baseURL != null && readerFactory.isThreadSafe() ) {
+            importPrefetcher = new ImportPrefetcher( readerFactory );
+            importPrefetcher.scan( baseURL, lessData );
+        }
+    }
+
     /**
      * If there are some imports with variables then this will parse after a formatter if available.
      * @param formatter the formatter to evaluate variables
@@ -144,6 +182,16 @@ void parseLazy( CssFormatter formatter ) {
         }
     }
 
+    /**
+     * Cancel the reading of imports that are not used.
+     */
+    void cancelPrefetch() {
+        if( importPrefetcher != null ) {
+            importPrefetcher.cancel();
+            importPrefetcher = null;
+        }
+    }
+
     /**
      * Parse main and import less files.
      * @param currentRule the current container. This can be the root or a rule.
@@ -573,24 +621,27 @@ private void importFile( FormattableContainer currentRule, final String name ) {
                 currentRule.add( new CssAtRule( reader, "@import " + origFilename + ';', true ) );
                 return;
             }
-            if( "file".equals( baseURL.getProtocol() ) && filename.lastIndexOf( '.' ) <= filename.lastIndexOf( '/' ) ) {
+            if( isLocalFile( baseURL ) && filename.lastIndexOf( '.' ) <= filename.lastIndexOf( '/' ) ) {
                 filename += ".less";
                 baseURL = (URL)old[1];
                 baseURL = baseURL == null ? new URL( filename ) : new URL( baseURL, filename );
             }
             relativeURL = new URL( relativeURL, filename );
-            if( imports.add( baseURL ) || isMultiple ) {
+            if( imports.add( importKey( baseURL ) ) || isMultiple ) {
                 if( isReference != reader.isReference() ) {
                     add( new ReferenceInfo( isReference ) );
                 }
-                Reader importReader = readerFactory.create( baseURL );
+                Reader importReader = importPrefetcher == null ? null : importPrefetcher.open( baseURL );
+                if( importReader == null ) {
+                    importReader = readerFactory.create( baseURL );
+                }
+                String content = readAll( importReader );
                 if( isInline ) {
-                    Scanner scanner = new Scanner(importReader).useDelimiter( "\\A" );
-                    if( scanner.hasNext() ) {
-                        currentRule.add( new CssAtRule( reader, scanner.next(), false ) );
+                    if( !content.isEmpty() ) {
+                        currentRule.add( new CssAtRule( reader, content, false ) );
                     }
                 } else {
-                    reader = new LessLookAheadReader( importReader, filename, isReference, isMultiple );
+                    reader = new LessLookAheadReader( new StringReader( content ), filename, isReference, isMultiple );
                     try {
                         parse( currentRule );
                     } finally {
@@ -616,6 +667,65 @@ private void importFile( FormattableContainer currentRule, final String name ) {
         }
     }
 
+    /**
+     * If the URL is a local file, an entry of a jar file or a file in memory. For such URLs a missing file extension
+     * ".less" is added.
+     * 
+     * @param url
+     *            the URL of the import
+     * @return true, if local
+     */
+    static boolean isLocalFile( URL url ) {
+        String protocol = url.getProtocol();
+        return "file".equals( protocol ) || "jar".equals( protocol ) || MemoryReaderFactory.PROTOCOL.equals( protocol );
+    }
+
+    /**
+     * Get the identity of an import. The URL itself is not used because URL.equals() resolve the host name.
+     * 
+     * @param url
+     *            the URL of the import
+     * @return the real path for existing files, else the normalized URI
+     */
+    private static String importKey( URL url ) {
+        try {
+            URI uri = url.toURI().normalize();
+            if( "file".equals( uri.getScheme() ) ) {
+                try {
+                    return Paths.get( uri ).toRealPath().toUri().toString();
+                } catch( Exception ex ) {
+                    // file does not exist or is not in the default file system
+                }
+            }
+            return uri.toString();
+        } catch( URISyntaxException ex ) {
+            return url.toString();
+        }
+    }
+
+    /**
+     * Read the complete content of an import and close the reader.
+     * 
+     * @param reader
+     *            the reader
+     * @return the content
+     * @throws IOException
+     *             If any I/O error occur on reading.
+     */
+    private static String readAll( Reader reader ) throws IOException {
+        try {
+            StringBuilder builder = new StringBuilder();
+            char[] buffer = new char[8192];
+            int count;
+            while( (count = reader.read( buffer )) > 0 ) {
+                builder.append( buffer, 0, count );
+            }
+            return builder.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
     /**
      * Create a rule and parse the content of an block.
      * 
@@ -893,7 +1003,13 @@ private Expression parseExpression( char leftOperator ) {
                             break;
                         case "data-uri":
                         case "colorize-image":
+                        case "image-size":
+                        case "image-width":
+                        case "image-height":
                             Operation op = parseParameterList();
+                            if( str.equals( "data-uri" ) ) {
+                                addDataUri( op );
+                            }
                             op.addLeftOperand( new ValueExpression( reader, relativeURL.toString() ) );
                             right = new FunctionExpression( reader, str, op );
                             break;
@@ -1193,6 +1309,33 @@ private Expression buildExpression( String str ) {
         }
     }
 
+    /**
+     * Register the URL of a data-uri call if it is a constant.
+     * 
+     * @param op the parameters of the function without the relative URL
+     */
+    private void addDataUri( Operation op ) {
+        List<Expression> operands = op.getOperands();
+        if( operands.isEmpty() ) {
+            return;
+        }
+        Expression url = operands.get( operands.size() - 1 );
+        if( url.getClass() != ValueExpression.class ) {
+            return;
+        }
+        String str = url.toString();
+        if( str.indexOf( '@' ) >= 0 || str.indexOf( '`' ) >= 0 ) {
+            return; // contains a variable or JavaScript
+        }
+        if( dataUris == null ) {
+            dataUris = new ArrayList<>();
+        }
+        String relative = relativeURL.toString();
+        str = UrlUtils.removeQuote( str );
+        // the mime type is only needed to find a cached result
+        dataUris.add( operands.size() == 1 ? new String[] { relative, str } : new String[] { relative, str, "" } );
+    }
+
     /**
      * Parse comments
      * 
@@ -0,0 +1,340 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A ReaderFactory for less files and resources that are hold in memory. The content can be text or bytes. Text is
+ * passed to the parser without any decoding. All changes replace an immutable snapshot, so that running compiles see
+ * either the old or the new content. URLs that are not in the memory are read like in the default ReaderFactory.
+ * <p>
+ * Typical usage:
+ * 
+ * <pre>
+ * MemoryReaderFactory factory = new MemoryReaderFactory();
+ * factory.put( "/theme/colors.less", "&#64;main: red;" );
+ * URL url = factory.getURL( "/theme/main.less" );
+ * String css = Less.compile( url, "&#64;import 'colors'; a { color: &#64;main; }", false, factory );
+ * </pre>
+ */
+public class MemoryReaderFactory extends ReaderFactory {
+
+    /** the protocol of the URLs that are created with getURL() */
+    public static final String               PROTOCOL = "memory";
+
+    /** shared between all instances so that the stamps are unique */
+    private static final AtomicLong          VERSIONS = new AtomicLong();
+
+    private volatile Map<String, MemoryFile> files    = Collections.emptyMap();
+
+    private final URLStreamHandler           handler  = new MemoryHandler();
+
+    /**
+     * Create a URL for a path in the memory. Imports are resolved relative to this URL. The URL can be opened also
+     * without this factory.
+     * 
+     * @param path
+     *            the path of the file, for example "/theme/main.less"
+     * @return the URL
+     * @throws MalformedURLException
+     *             if the path is invalid
+     */
+    public URL getURL( String path ) throws MalformedURLException {
+        return new URL( PROTOCOL, null, -1, path.startsWith( "/" ) ? path : '/' + path, handler );
+    }
+
+    /**
+     * Convert the path or URL of a file to a URL.
+     * 
+     * @param path
+     *            a path in the memory, a memory URL or another absolute URL
+     * @return the URL
+     * @throws MalformedURLException
+     *             if the path is invalid
+     */
+    private URL toURL( String path ) throws MalformedURLException {
+        if( path.startsWith( PROTOCOL + ':' ) ) {
+            return new URL( null, path, handler );
+        }
+        if( !path.startsWith( "/" ) && path.indexOf( ':' ) > 0 ) {
+            try {
+                return new URL( path );
+            } catch( MalformedURLException ex ) {
+                // a path that contains a colon
+            }
+        }
+        return getURL( path );
+    }
+
+    /**
+     * Add or replace a text file.
+     * 
+     * @param path
+     *            the path or the URL of the file
+     * @param content
+     *            the less data
+     * @throws MalformedURLException
+     *             if the path is invalid
+     */
+    public void put( String path, String content ) throws MalformedURLException {
+        update( Collections.singletonMap( path, content ), false );
+    }
+
+    /**
+     * Add or replace a binary file, for example an image.
+     * 
+     * @param path
+     *            the path or the URL of the file
+     * @param content
+     *            the bytes, must not be changed later
+     * @throws MalformedURLException
+     *             if the path is invalid
+     */
+    public void put( String path, byte[] content ) throws MalformedURLException {
+        update( Collections.singletonMap( path, content ), false );
+    }
+
+    /**
+     * Remove a file.
+     * 
+     * @param path
+     *            the path or the URL of the file
+     * @throws MalformedURLException
+     *             if the path is invalid
+     */
+    public void remove( String path ) throws MalformedURLException {
+        update( Collections.singletonMap( path, null ), false );
+    }
+
+    /**
+     * Replace all files in one atomic step.
+     * 
+     * @param content
+     *            the paths or the URLs of the files with the content as String or byte[]
+     * @throws MalformedURLException
+     *             if a path is invalid
+     */
+    public void setFiles( Map<String, ?> content ) throws MalformedURLException {
+        update( content, true );
+    }
+
+    /**
+     * Create a new snapshot with the changes.
+     * 
+     * @param changes
+     *            the changed files, a null value remove a file
+     * @param replace
+     *            true, if the old files should be removed
+     * @throws MalformedURLException
+     *             if a path is invalid
+     */
+    private synchronized void update( Map<String, ?> changes, boolean replace ) throws MalformedURLException {
+        HashMap<String, MemoryFile> snapshot = replace ? new HashMap<>() : new HashMap<>( files );
+        for( Entry<String, ?> entry : changes.entrySet() ) {
+            String path = entry.getKey();
+            String key = key( toURL( path ) );
+            Object content = entry.getValue();
+            if( content == null ) {
+                snapshot.remove( key );
+            } else if( content instanceof String || content instanceof byte[] ) {
+                snapshot.put( key, new MemoryFile( content, VERSIONS.incrementAndGet() ) );
+            } else {
+                throw new IllegalArgumentException( "Content must be a String or byte[]: " + path );
+            }
+        }
+        files = Collections.unmodifiableMap( snapshot );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream openStream( URL url ) throws IOException {
+        MemoryFile file = get( url );
+        if( file == null ) {
+            return super.openStream( url );
+        }
+        Object content = file.content;
+        return new ByteArrayInputStream( content instanceof String ? ((String)content).getBytes( StandardCharsets.UTF_8 ) : (byte[])content );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Reader create( URL url ) throws IOException {
+        MemoryFile file = get( url );
+        if( file == null ) {
+            return super.create( url );
+        }
+        Object content = file.content;
+        if( content instanceof String ) {
+            return new StringReader( (String)content );
+        }
+        return new InputStreamReader( new ByteArrayInputStream( (byte[])content ), StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * Get a stamp for files in the memory. It changes with every update of the file.
+     * 
+     * @param url
+     *            the url, not null
+     * @return the stamp or null if the content should not be cached
+     */
+    @Override
+    public String getStamp( URL url ) {
+        MemoryFile file = files.get( key( url ) );
+        return file == null ? null : url + "|" + file.version;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Get a file of the current snapshot.
+     * 
+     * @param url
+     *            the URL
+     * @return the file or null if not in memory
+     * @throws FileNotFoundException
+     *             if it is a memory URL but not exists
+     */
+    private MemoryFile get( URL url ) throws FileNotFoundException {
+        MemoryFile file = files.get( key( url ) );
+        if( file == null && PROTOCOL.equals( url.getProtocol() ) ) {
+            throw new FileNotFoundException( url.toString() );
+        }
+        return file;
+    }
+
+    /**
+     * Get the key of a URL. Segments like "./" and "../" are removed.
+     * 
+     * @param url
+     *            the URL
+     * @return the key
+     */
+    private static String key( URL url ) {
+        try {
+            return url.toURI().normalize().toString();
+        } catch( Exception ex ) {
+            return url.toString();
+        }
+    }
+
+    /**
+     * The content of a file with a version.
+     */
+    private static class MemoryFile {
+
+        /** String or byte[] */
+        private final Object content;
+
+        private final long   version;
+
+        /**
+         * Create a new file.
+         * 
+         * @param content
+         *            the content
+         * @param version
+         *            unique version of the content
+         */
+        private MemoryFile( Object content, long version ) {
+            this.content = content;
+            this.version = version;
+        }
+    }
+
+    /**
+     * The handler of the memory URLs.
+     */
+    private class MemoryHandler extends URLStreamHandler {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected URLConnection openConnection( URL url ) {
+            return new MemoryConnection( url );
+        }
+    }
+
+    /**
+     * A connection to a memory URL, used if the URL is opened without the factory.
+     */
+    private class MemoryConnection extends URLConnection {
+
+        /**
+         * Create a new connection.
+         * 
+         * @param url
+         *            the URL
+         */
+        private MemoryConnection( URL url ) {
+            super( url );
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void connect() {
+            connected = true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return openStream( getURL() );
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Locale independent formatting of decimal numbers for the CSS output. The result is identical to a
+ * DecimalFormat with the pattern "#.########" and the rounding mode HALF_EVEN but the digits are written
+ * directly to the output without temporary objects.
+ */
+final class NumberUtils {
+
+    /** count of fraction digits */
+    private static final int        FRACTION_DIGITS = 8;
+
+    private static final double     SCALE           = 1e8;
+
+    private static final double     HALF_STEP_VALUE = 0.000000005;
+
+    private static final BigDecimal HALF_STEP       = new BigDecimal( "0.000000005" );
+
+    /** Up to this value the scaled number has enough precision for the fast path. */
+    private static final double     FAST_LIMIT      = 1e6;
+
+    /**
+     * No instances.
+     */
+    private NumberUtils() {
+        // nothing
+    }
+
+    /**
+     * Append a decimal number with up to 8 fraction digits.
+     * 
+     * @param output the target
+     * @param value the number
+     * @param leadingZero true, if a zero before the decimal point should be written for values between -1 and 1
+     */
+    static void append( StringBuilder output, double value, boolean leadingZero ) {
+        if( value == (int)value ) {
+            output.append( (int)value );
+            return;
+        }
+        if( Double.isNaN( value ) ) {
+            output.append( "NaN" );
+            return;
+        }
+        boolean negative = value < 0;
+        double abs = Math.abs( value );
+        if( abs >= FAST_LIMIT ) {
+            if( Double.isInfinite( value ) ) {
+                output.append( negative ? "-\u221E" : "\u221E" );
+            } else {
+                appendExact( output, value, leadingZero );
+            }
+            return;
+        }
+        double scaled = abs * SCALE;
+        double rounded = Math.rint( scaled );
+        double diff = Math.abs( scaled - rounded );
+        if( diff > 0.5 - 4 * Math.ulp( scaled ) ) {
+            // near a tie the multiplication can round in the wrong direction
+            appendExact( output, value, leadingZero );
+            return;
+        }
+        long digits = (long)rounded;
+        if( negative ) {
+            output.append( '-' );
+        }
+        long integer = digits / (long)SCALE;
+        int fraction = (int)(digits % (long)SCALE);
+        if( integer != 0 || leadingZero || fraction == 0 ) {
+            output.append( integer );
+        }
+        if( fraction != 0 ) {
+            int count = FRACTION_DIGITS;
+            while( fraction % 10 == 0 ) {
+                fraction /= 10;
+                count--;
+            }
+            output.append( '.' );
+            for( int div = pow10( count - 1 ); div > fraction; div /= 10 ) {
+                output.append( '0' );
+            }
+            output.append( fraction );
+        }
+    }
+
+    /**
+     * Power of 10 for small exponents.
+     * 
+     * @param exp the exponent, 0 until 8
+     * @return the power
+     */
+    private static int pow10( int exp ) {
+        int value = 1;
+        while( exp-- > 0 ) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    /**
+     * Slow path for large numbers and values near a tie. Like DecimalFormat the shortest decimal representation of
+     * the double is rounded. Only on a tie the exact binary value decide the direction.
+     * 
+     * @param output the target
+     * @param value the number
+     * @param leadingZero true, if a zero before the decimal point should be written
+     */
+    private static void appendExact( StringBuilder output, double value, boolean leadingZero ) {
+        double abs = Math.abs( value );
+        BigDecimal shortest = new BigDecimal( Double.toString( abs ) );
+        BigDecimal rounded = shortest.setScale( FRACTION_DIGITS, RoundingMode.HALF_EVEN );
+        if( abs > HALF_STEP_VALUE && shortest.subtract( rounded ).abs().compareTo( HALF_STEP ) == 0 ) {
+            // a value of exactly half step is rounded to zero by DecimalFormat
+            rounded = new BigDecimal( abs ).setScale( FRACTION_DIGITS, RoundingMode.HALF_EVEN );
+        }
+        String str = rounded.toPlainString();
+        int end = str.length();
+        while( str.charAt( end - 1 ) == '0' ) {
+            end--;
+        }
+        if( str.charAt( end - 1 ) == '.' ) {
+            end--;
+        }
+        int start = 0;
+        if( !leadingZero && str.startsWith( "0" ) && end > 1 ) {
+            start = 1;
+        }
+        if( value < 0 ) {
+            output.append( '-' );
+        }
+        output.append( str, start, end );
+    }
+}
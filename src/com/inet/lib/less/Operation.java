@@ -29,7 +29,6 @@
 import static com.inet.lib.less.ColorUtils.*;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 /**
  * A arithmetic operation.
@@ -42,40 +41,6 @@ class Operation extends Expression {
     
     private int                         type;
 
-    private static final HashMap<String, HashMap<String, Double>> UNIT_CONVERSIONS = new HashMap<>();
-    static {
-        HashMap<String, Double> length = new HashMap<>();
-        putConvertion( length, "m", 1 );
-        putConvertion( length, "cm", 0.01 );
-        putConvertion( length, "mm", 0.001 );
-        putConvertion( length, "in", 0.0254 );
-        putConvertion( length, "px", 0.0254 / 96 );
-        putConvertion( length, "pt", 0.0254 / 72 );
-        putConvertion( length, "pc", 0.0254 / 72 * 12 );
-
-        HashMap<String, Double> duration = new HashMap<>();
-        putConvertion( duration, "s", 1 );
-        putConvertion( duration, "ms", 0.001 );
-
-        HashMap<String, Double> angle = new HashMap<>();
-        putConvertion( angle, "rad", 1 / (2 * Math.PI) );
-        putConvertion( angle, "deg", 1 / 360.0 );
-        putConvertion( angle, "grad", 1 / 400.0 );
-        putConvertion( angle, "turn", 1 );
-    }
-
-    /**
-     * Helper for creating static unit conversions.
-     * 
-     * @param group the unit group like length, duration or angles. Units of one group can convert in another.
-     * @param unit the unit name
-     * @param factor the convert factor
-     */
-    private static void putConvertion( HashMap<String, Double> group, String unit, double factor ) {
-        UNIT_CONVERSIONS.put(unit, group );
-        group.put( unit, factor );
-    }
-
     /**
      * Create a new instance.
      * 
@@ -288,29 +253,27 @@ public void appendTo( CssFormatter formatter ) {
     }
 
     /**
-     * Calculate the factor between 2 units.
-     * 
-     * @param leftUnit left unit
-     * @param rightUnit right unit
-     * @param fail true, should be fail if units incompatible; false, return 1 is incompatible
-     * @return the factor between the 2 units.
-     * @throws LessException if unit are incompatible and fail is true
+     * {@inheritDoc}
      */
-    static double unitFactor( String leftUnit, String rightUnit, boolean fail ) {
-        if( leftUnit.length() == 0 || rightUnit.length() == 0 || leftUnit.equals( rightUnit ) ) {
-            return 1;
-        }
-        HashMap<String, Double> leftGroup = UNIT_CONVERSIONS.get( leftUnit );
-        if( leftGroup != null ) {
-            HashMap<String, Double> rightGroup = UNIT_CONVERSIONS.get( rightUnit );
-            if( leftGroup == rightGroup ) {
-                return leftGroup.get( leftUnit ) / leftGroup.get( rightUnit );
-            }
-        }
-        if( fail ) {
-            throw new LessException( "Incompatible types" );
+    @Override
+    void evaluate( CssFormatter formatter, EvaluationResult result ) {
+        int type = getDataType( formatter );
+        switch( operator ) {
+            case '+':
+            case '-':
+            case '*':
+            case '/':
+                switch( type ) {
+                    case NUMBER:
+                    case PERCENT:
+                    case RGBA:
+                    case COLOR:
+                        evaluateArithmetic( formatter, result );
+                        result.type = type;
+                        return;
+                }
         }
-        return 1;
+        super.evaluate( formatter, result );
     }
 
     /**
@@ -318,34 +281,100 @@ static double unitFactor( String leftUnit, String rightUnit, boolean fail ) {
      */
     @Override
     public double doubleValue( CssFormatter formatter ) {
-        Expression leftOp = operands.get( 0 );
-        int type = leftOp.getDataType( formatter );
-        double value = leftOp.doubleValue( formatter );
-        String unit = leftOp.unit( formatter );
-        for( int i = 1; i < operands.size(); i++ ) {
-            Expression rightOp = operands.get( i );
-            int rightType = rightOp.getDataType( formatter );
-            double right = rightOp.doubleValue( formatter );
-            switch( operator ) {
-                case '+':
-                case '-':
-                    right /= unitFactor( unit, rightOp.unit( formatter ), false );
+        EvaluationResult result = formatter.getEvaluationResult();
+        try {
+            evaluateArithmetic( formatter, result );
+            return result.doubleValue;
+        } finally {
+            formatter.freeEvaluationResult( result );
+        }
+    }
+
+    /**
+     * Calculate the value and the unit of this operation with a single evaluation of every operand.
+     * 
+     * @param formatter the CCS target
+     * @param result the holder for value and unit
+     */
+    private void evaluateArithmetic( CssFormatter formatter, EvaluationResult result ) {
+        boolean product = operator == '*' || operator == '/';
+        EvaluationResult operand = formatter.getEvaluationResult();
+        try {
+            Expression leftOp = operands.get( 0 );
+            leftOp.evaluate( formatter, operand );
+            int type = operand.type;
+            double value = operand.doubleValue( leftOp, formatter );
+            int unit = operand.unit( leftOp, formatter );
+            int firstUnit = unit;
+            if( product ) {
+                countUnits( leftOp, operand, true, formatter, result );
             }
-            if( type == COLOR ) {
-                if( rightType == COLOR ) {
-                    value = doubleValue2Colors( value, right );
-                } else {
-                    value = doubleValueLeftColor( value, right );
+            for( int i = 1; i < operands.size(); i++ ) {
+                Expression rightOp = operands.get( i );
+                operand.clear();
+                rightOp.evaluate( formatter, operand );
+                int rightType = operand.type;
+                double right = operand.doubleValue( rightOp, formatter );
+                switch( operator ) {
+                    case '+':
+                    case '-':
+                        int rightUnit = operand.unit( rightOp, formatter );
+                        right /= Units.factor( unit, rightUnit, false );
+                        if( firstUnit == Units.NONE ) {
+                            firstUnit = rightUnit;
+                        }
+                        break;
+                    case '*':
+                    case '/':
+                        countUnits( rightOp, operand, operator == '*', formatter, result );
                 }
-            } else {
-                if( rightType == COLOR ) {
-                    value = doubleValueRightColor( value, right );
+                if( type == COLOR ) {
+                    if( rightType == COLOR ) {
+                        value = doubleValue2Colors( value, right );
+                    } else {
+                        value = doubleValueLeftColor( value, right );
+                    }
                 } else {
-                    value = doubleValue( value, right );
+                    if( rightType == COLOR ) {
+                        value = doubleValueRightColor( value, right );
+                    } else {
+                        value = doubleValue( value, right );
+                    }
                 }
             }
+            result.doubleValue = value;
+            result.unit = product ? result.productUnit() : firstUnit;
+        } finally {
+            formatter.freeEvaluationResult( operand );
+        }
+    }
+
+    /**
+     * Count the unit of an evaluated operand of a multiplication or division.
+     * 
+     * @param exp the operand
+     * @param evaluated the evaluated values of the operand
+     * @param numerator true, if the operand is in the numerator
+     * @param formatter the CCS target
+     * @param result the holder for the unit counts
+     */
+    private static void countUnits( Expression exp, EvaluationResult evaluated, boolean numerator, CssFormatter formatter, EvaluationResult result ) {
+        if( exp.getClass() == Operation.class ) {
+            Operation op = (Operation)exp;
+            switch( op.operator ) {
+                case '*':
+                case '/':
+                    if( evaluated.isUnitsCounted() ) {
+                        result.addUnits( evaluated );
+                    } else {
+                        op.countUnits( formatter, result );
+                    }
+                    break;
+                default:
+            }
+        } else {
+            result.countUnit( evaluated.unit( exp, formatter ), numerator );
         }
-        return value;
     }
 
     /**
@@ -493,11 +522,19 @@ public boolean booleanValue(CssFormatter formatter) {
                     }
                         //$FALL-THROUGH$
                     default: {
-                        double left = leftOp.doubleValue( formatter );
-                        Expression rightOp = operands.get( 1 );
-                        double right = rightOp.doubleValue( formatter );
+                        EvaluationResult leftResult = formatter.getEvaluationResult();
+                        EvaluationResult rightResult = formatter.getEvaluationResult();
                         try {
-                            right /= unitFactor( leftOp.unit( formatter ), rightOp.unit( formatter ), true );
+                            leftOp.evaluate( formatter, leftResult );
+                            double left = leftResult.doubleValue( leftOp, formatter );
+                            Expression rightOp = operands.get( 1 );
+                            rightOp.evaluate( formatter, rightResult );
+                            double right = rightResult.doubleValue( rightOp, formatter );
+                            try {
+                                right /= Units.factor( leftResult.unit( leftOp, formatter ), rightResult.unit( rightOp, formatter ), true );
+                            } catch (LessException ex ) {
+                                return false;
+                            }
                             switch( operator ) {
                                 case '>':
                                     return left > right;
@@ -510,8 +547,9 @@ public boolean booleanValue(CssFormatter formatter) {
                                 case '≤':
                                     return left <= right;
                             }
-                        } catch (LessException ex ) {
-                            return false;
+                        } finally {
+                            formatter.freeEvaluationResult( rightResult );
+                            formatter.freeEvaluationResult( leftResult );
                         }
                     }
                 }
@@ -534,12 +572,11 @@ private String normlizeQuotes( String str ) {
     }
 
     /**
-     * Calculate the unit if there are different units. It use the numerator and denominator count.
+     * Count the units if there are different units. It use the numerator and denominator count.
      * @param formatter the CCS target
-     * @param list previous result
-     * @return null or a with with minimum one entry
+     * @param result the holder for the unit counts
      */
-    private ArrayList<Unit> unit( CssFormatter formatter, ArrayList<Unit> list ){
+    private void countUnits( CssFormatter formatter, EvaluationResult result ){
         for( int i = 0; i < operands.size(); i++ ) {
             Expression exp = operands.get( i );
             if( exp.getClass() == Operation.class ) {
@@ -547,37 +584,14 @@ private ArrayList<Unit> unit( CssFormatter formatter, ArrayList<Unit> list ){
                 switch( op.operator ) {
                     case '*':
                     case '/':
-                        list = op.unit( formatter, list );
+                        op.countUnits( formatter, result );
                         break;
                     default:
                 }
             } else {
-                String unitStr = exp.unit( formatter );
-                if( !unitStr.isEmpty() ) {
-                    if( list == null ) {
-                        list = new ArrayList<>();
-                    }
-                    Unit unit = null;
-                    for( int j = 0; j < list.size(); j++ ) {
-                        Unit unitLoop = list.get( j );
-                        if( unitLoop.unit.equals( unitStr ) ) {
-                            unit = unitLoop;
-                            break;
-                        }
-                    }
-                    if( unit == null ) {
-                        unit = new Unit( unitStr );
-                        list.add( unit );
-                    }
-                    if( i == 0 || operator == '*' ) {
-                        unit.numerator++;
-                    } else {
-                        unit.denominator++;
-                    }
-                }
+                result.countUnit( Units.id( exp.unit( formatter ), formatter ), i == 0 || operator == '*' );
             }
         }
-        return list;
     }
 
     /**
@@ -588,18 +602,13 @@ public String unit( CssFormatter formatter ) {
         switch( operator ) {
             case '*':
             case '/':
-                ArrayList<Unit> list = unit( formatter, null );
-                if( list != null ) {
-                    Unit unit = list.get( 0 );
-                    int useCount = unit.useCount();
-                    for( int i=1; i<list.size(); i++ ){
-                        if( list.get( i ).useCount() > useCount ) {
-                            unit = list.get( i );
-                        }
-                    }
-                    return unit.unit;
+                EvaluationResult result = formatter.getEvaluationResult();
+                try {
+                    countUnits( formatter, result );
+                    return Units.name( result.productUnit(), formatter );
+                } finally {
+                    formatter.freeEvaluationResult( result );
                 }
-                return "";
         }
         for( int i = 0; i < operands.size(); i++ ) {
             String unit = operands.get( i ).unit( formatter );
@@ -675,31 +684,4 @@ static int level( char operator ) {
        }
         return 0;
     }
-
-    /**
-     * Helper class to count the resulting unit of an operation with different units
-     */
-    private static class Unit {
-        private int          numerator;
-
-        private int          denominator;
-
-        private final String unit;
-
-        /**
-         * Create a new instance.
-         * @param unit the unit to count.
-         */
-        Unit( String unit ) {
-            this.unit = unit;
-        }
-
-        /**
-         * The resulting usage count of the unit.
-         * @return the count
-         */
-        int useCount() {
-            return numerator - denominator;
-        }
-    }
 }
@@ -0,0 +1,219 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.util.ArrayList;
+
+import javax.annotation.Nullable;
+
+/**
+ * A string with variable place holders like a selector or a property name that was split on parsing in literal parts
+ * and variable names. Strings without place holders are not compiled and used as constant.
+ */
+final class PlaceHolderTemplate {
+
+    private final String    str;
+
+    /** the start position for the search of place holders */
+    private final int       pos;
+
+    /** true, if the string can not be compiled and must be scanned on every call */
+    private final boolean   generic;
+
+    private final String[]  literals;
+
+    private final String[]  names;
+
+    private final boolean[] inline;
+
+    /**
+     * Create a new template.
+     * 
+     * @param str the original string
+     * @param pos the start position for the search of place holders
+     * @param literals the literal parts, one more as the names
+     * @param names the variable names or null if generic
+     * @param inline if the value of a variable is written in inline mode
+     */
+    private PlaceHolderTemplate( String str, int pos, String[] literals, String[] names, boolean[] inline ) {
+        this.str = str;
+        this.pos = pos;
+        this.generic = names == null;
+        this.literals = literals;
+        this.names = names;
+        this.inline = inline;
+    }
+
+    /**
+     * Compile the strings.
+     * 
+     * @param strs the strings
+     * @return the templates with null for constant strings or null if all strings are constant
+     */
+    @Nullable
+    static PlaceHolderTemplate[] compile( String[] strs ) {
+        PlaceHolderTemplate[] templates = null;
+        for( int i = 0; i < strs.length; i++ ) {
+            PlaceHolderTemplate template = compile( strs[i] );
+            if( template != null ) {
+                if( templates == null ) {
+                    templates = new PlaceHolderTemplate[strs.length];
+                }
+                templates[i] = template;
+            }
+        }
+        return templates;
+    }
+
+    /**
+     * Compile a string with the same rules as SelectorUtils.appendToWithPlaceHolder.
+     * 
+     * @param str the string
+     * @return the template or null if the string has no place holders
+     */
+    @Nullable
+    static PlaceHolderTemplate compile( String str ) {
+        int pos = str.startsWith( "@{" ) ? 0 : str.indexOf( '@', 1 );
+        if( pos < 0 ) {
+            return null;
+        }
+        int length = str.length();
+        if( length > 0 && str.charAt( 0 ) == '`' ) {
+            return new PlaceHolderTemplate( str, pos, null, null, null ); // JavaScript
+        }
+        ArrayList<String> literals = new ArrayList<>();
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<Boolean> inline = new ArrayList<>();
+        int appendIdx = 0;
+        char quote = 0;
+        for( int i = pos; i < length; i++ ) {
+            char ch = str.charAt( i );
+            switch( ch ) {
+                case '\"':
+                case '\'':
+                    if( quote == 0 ) {
+                        quote = ch;
+                    } else {
+                        quote = 0;
+                    }
+                    break;
+                case '@':
+                    String name;
+                    int nextIdx;
+                    if( length > i + 1 && str.charAt( i + 1 ) == '{' ) {
+                        nextIdx = str.indexOf( '}', i );
+                        if( nextIdx < 0 ) {
+                            return new PlaceHolderTemplate( str, pos, null, null, null ); // syntax error is reported on formatting
+                        }
+                        name = '@' + str.substring( i + 2, nextIdx );
+                        nextIdx++;
+                    } else {
+                        if( quote != 0 ) {
+                            break;
+                        }
+                        LOOP: for( nextIdx = i + 1; nextIdx < length; nextIdx++ ) {
+                            switch( str.charAt( nextIdx ) ) {
+                                case ' ':
+                                case ')':
+                                case ',':
+                                case '\"':
+                                case '\'':
+                                    break LOOP;
+                            }
+                        }
+                        name = str.substring( i, nextIdx );
+                    }
+                    literals.add( str.substring( appendIdx, i ) );
+                    names.add( name );
+                    inline.add( i == 0 || str.charAt( i - 1 ) != '=' );
+                    appendIdx = nextIdx;
+                    i = nextIdx - 1;
+                    break;
+            }
+        }
+        if( names.isEmpty() ) {
+            return null; // only '@' characters inside of quotes
+        }
+        literals.add( str.substring( appendIdx ) );
+        boolean[] inlines = new boolean[inline.size()];
+        for( int i = 0; i < inlines.length; i++ ) {
+            inlines[i] = inline.get( i );
+        }
+        return new PlaceHolderTemplate( str, pos, literals.toArray( new String[literals.size()] ), names.toArray( new String[names.size()] ), inlines );
+    }
+
+    /**
+     * Append the string with the current values of the variables to the formatter.
+     * 
+     * @param formatter current formatter
+     * @param caller for exception handling
+     */
+    void appendTo( CssFormatter formatter, LessObject caller ) {
+        if( generic || formatter.inlineMode() ) {
+            SelectorUtils.appendToWithPlaceHolder( formatter, str, pos, false, caller );
+            return;
+        }
+        String[] names = this.names;
+        for( int i = 0; i < names.length; i++ ) {
+            formatter.append( literals[i] );
+            String name = names[i];
+            Expression exp = formatter.getVariable( name );
+            if( exp == null ) {
+                throw caller.createException( "Undefined Variable: " + name + " in " + str );
+            }
+            if( inline[i] ) {
+                formatter.setInlineMode( true );
+                exp.appendTo( formatter );
+                formatter.setInlineMode( false );
+            } else {
+                exp.appendTo( formatter ); // add quotes if there is an equals like ...=${..}
+            }
+        }
+        formatter.append( literals[names.length] );
+    }
+
+    /**
+     * Get the string with the current values of the variables.
+     * 
+     * @param formatter current formatter
+     * @param caller for exception handling
+     * @return the result
+     */
+    String toString( CssFormatter formatter, LessObject caller ) {
+        formatter.addOutput();
+        appendTo( formatter, caller );
+        return formatter.releaseOutput();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return str;
+    }
+}
@@ -26,21 +26,31 @@
  */
 package com.inet.lib.less;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 /**
  * A factory to create a reader and streams for parsing. You can override it to resolve the URL, implement a cache or use another
  * encoding as UFT-8.
+ * <p>
+ * Imports and data-uri resources are only read in parallel if {@link #isThreadSafe()} returns true. Else all methods are
+ * called from the thread of the compile.
  */
 public class ReaderFactory {
 
+    private static final AtomicLong INSTANCES = new AtomicLong();
+
+    /** unique id of this factory, scope of the shared caches */
+    private final long              instance  = INSTANCES.incrementAndGet();
+
     /**
      * Open an InputStream for the given URL.
      * 
@@ -79,6 +89,60 @@ public InputStream openStream( URL baseURL, String urlStr, String relativeUrlStr
         }
     }
 
+    /**
+     * Get a stamp of the current content of the URL. The stamp must change if the content changes. It is used to cache
+     * the results of data-uri and other resources between compiles. The stamp must only be unique for this factory
+     * instance because the cached results are scoped to the instance. Only the stamps of the default ReaderFactory are
+     * shared between instances because they describe the local file system. The default implementation returns the
+     * location, size and modification time of local files. For subclasses it returns always null because they can
+     * deliver other content. Subclasses can override this method to enable the cache.
+     * 
+     * @param url
+     *            the url, not null
+     * @return the stamp or null if the content should not be cached
+     */
+    public String getStamp( URL url ) {
+        if( getClass() != ReaderFactory.class || !"file".equals( url.getProtocol() ) ) {
+            return null;
+        }
+        try {
+            File file = new File( url.toURI() );
+            if( file.isFile() ) {
+                return url + "|" + file.length() + "|" + file.lastModified();
+            }
+        } catch( Exception ex ) {
+            // not a valid file URL
+        }
+        return null;
+    }
+
+    /**
+     * Get the key of a resource for caches that are shared between compiles and factories.
+     * 
+     * @param url
+     *            the url, not null
+     * @return the stamp, scoped to this instance for subclasses, or null if the content should not be cached
+     */
+    final String getCacheKey( URL url ) {
+        String stamp = getStamp( url );
+        if( stamp == null || getClass() == ReaderFactory.class ) {
+            return stamp;
+        }
+        return instance + "|" + stamp;
+    }
+
+    /**
+     * If the factory can be used from multiple threads at the same time. Then imports and data-uri resources are read in
+     * parallel and {@link #create(URL)} and the openStream methods are called concurrently from I/O threads. The default
+     * ReaderFactory is thread safe. For subclasses it returns false. Subclasses that are thread safe can override this
+     * method to enable the parallel reading.
+     * 
+     * @return true, if thread safe
+     */
+    public boolean isThreadSafe() {
+        return getClass() == ReaderFactory.class;
+    }
+
     /**
      * Create a Reader for the given URL.
      * 
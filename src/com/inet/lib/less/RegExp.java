@@ -72,23 +72,43 @@ class RegExp {
     // \\\$ ---> Pattern replacement unescape in replacement preprocessing --> \$
     private static final String  REPLACEMENT_DOLLAR_DOLLAR_FOR_JAVA    = "\\\\\\$";
 
-    private boolean              global;
+    /** flag for a global replace, is not a Java pattern flag */
+    private static final int     GLOBAL                                = 0x40000000;
+
+    /** compiled expressions of all compiles, the key is the flags and the pattern */
+    private static final BoundedCache<String, RegExp> EXPRESSIONS      = new BoundedCache<>( 256 );
+
+    /** the JavaScript replacement strings converted to Java replacement strings */
+    private static final BoundedCache<String, String> REPLACEMENTS     = new BoundedCache<>( 256 );
+
+    private final boolean        global;
 
     private final Pattern        pattern;
 
     /**
      * Create an new instance.
      * @param pattern the regular expression pattern
+     * @param flags the parsed flags
+     */
+    private RegExp( String pattern, int flags ) {
+        this.global = (flags & GLOBAL) != 0;
+        this.pattern = Pattern.compile( pattern, flags & ~GLOBAL );
+    }
+
+    /**
+     * Get a compiled expression. The instances are cached and can be shared between threads.
+     * @param pattern the regular expression pattern
      * @param flags some flags
+     * @return the expression
      * @throws ParameterOutOfBoundsException if the flags are invalid
      */
-    RegExp( String pattern, String flags ) throws ParameterOutOfBoundsException {
+    static RegExp compile( String pattern, String flags ) throws ParameterOutOfBoundsException {
         int patternFlags = Pattern.UNIX_LINES;
         for( int i = 0; i < flags.length(); i++ ) {
             char flag = flags.charAt( i );
             switch( flag ) {
                 case 'g':
-                    global = true;
+                    patternFlags |= GLOBAL;
                     break;
                 case 'i':
                     patternFlags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
@@ -100,7 +120,13 @@ class RegExp {
                     throw new ParameterOutOfBoundsException();
             }
         }
-        this.pattern = Pattern.compile( pattern, patternFlags );
+        String key = Integer.toHexString( patternFlags ) + '/' + pattern;
+        RegExp regExp = EXPRESSIONS.get( key );
+        if( regExp == null ) {
+            regExp = new RegExp( pattern, patternFlags );
+            EXPRESSIONS.put( key, regExp );
+        }
+        return regExp;
     }
 
     /**
@@ -111,6 +137,22 @@ class RegExp {
      * @throws ParameterOutOfBoundsException if Java can not replace it like Javascript
      */
     public String replace( String input, String replacement ) throws ParameterOutOfBoundsException {
+        String javaReplacement = REPLACEMENTS.get( replacement );
+        if( javaReplacement == null ) {
+            javaReplacement = toJavaReplacement( replacement );
+            REPLACEMENTS.put( replacement, javaReplacement );
+        }
+        Matcher matcher = pattern.matcher( input );
+        return global ? matcher.replaceAll( javaReplacement ) : matcher.replaceFirst( javaReplacement );
+    }
+
+    /**
+     * Convert a JavaScript replacement string to a Java replacement string.
+     * @param replacement the JavaScript replacement
+     * @return the Java replacement
+     * @throws ParameterOutOfBoundsException if Java can not replace it like Javascript
+     */
+    private static String toJavaReplacement( String replacement ) throws ParameterOutOfBoundsException {
         // Replace \ in the replacement with \\ to escape it for Java replace.
         replacement = REPLACEMENT_BACKSLASH.matcher( replacement ).replaceAll( REPLACEMENT_BACKSLASH_FOR_JAVA );
 
@@ -125,9 +167,6 @@ public String replace( String input, String replacement ) throws ParameterOutOfB
         }
 
         // Replace the Javascript-ese $$ in the replacement with Java-ese \$.
-        replacement = REPLACEMENT_DOLLAR_DOLLAR.matcher( replacement ).replaceAll( REPLACEMENT_DOLLAR_DOLLAR_FOR_JAVA );
-
-        Matcher matcher = pattern.matcher( input );
-        return global ? matcher.replaceAll( replacement ) : matcher.replaceFirst( replacement );
+        return REPLACEMENT_DOLLAR_DOLLAR.matcher( replacement ).replaceAll( REPLACEMENT_DOLLAR_DOLLAR_FOR_JAVA );
     }
 }
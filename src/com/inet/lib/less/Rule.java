@@ -27,6 +27,7 @@
 package com.inet.lib.less;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -42,10 +43,20 @@ class Rule extends LessObject implements Formattable, FormattableContainer {
 
     private static final HashMap<String, Expression> NO_MATCH  = new HashMap<>();
 
+    /** count of cached merge results per rule */
+    private static final int            MERGE_CACHE_SIZE = 4;
+
     private FormattableContainer        parent;
 
     private String[]                    selectors;
 
+    private final PlaceHolderTemplate[] selectorTemplates;
+
+    /** pairs of parent selectors and merged selectors */
+    private String[][]                  mergeCache;
+
+    private int                         mergeCacheIdx;
+
     private final List<Expression>      params;
     
     private VariableExpression          varArg;
@@ -74,6 +85,7 @@ class Rule extends LessObject implements Formattable, FormattableContainer {
         this.parent = parent;
         this.mixins = new HashMultimap<>( parent.getMixins() );
         this.selectors = SelectorUtils.split( selectors  );
+        this.selectorTemplates = PlaceHolderTemplate.compile( this.selectors );
         if( params == null ) {
             this.params = null;
         } else {
@@ -147,27 +159,32 @@ void appendTo( @Nullable String[] mainSelector, CssFormatter formatter ) {
         try {
             String[] sel = selectors;
 
-            for( int s = 0; s < sel.length; s++ ) {
-                final String selector = sel[s];
-                String str = SelectorUtils.replacePlaceHolder( formatter, selector, this );
-                if( selector != str ) {
-                    if( sel == selectors ) {
-                        sel = sel.clone(); // we does not want change the declaration of this selectors
+            if( selectorTemplates != null ) {
+                sel = sel.clone(); // we does not want change the declaration of this selectors
+                for( int s = 0; s < sel.length; s++ ) {
+                    PlaceHolderTemplate template = selectorTemplates[s];
+                    if( template != null ) {
+                        sel[s] = template.toString( formatter, this );
                     }
-                    sel[s] = str;
                 }
             }
 
             if( mainSelector == null ) {        // main ruls
                 for( int i = 0; i < sel.length; i++ ) {
-                    sel[i] = SelectorUtils.fastReplace( sel[i], "&", "" );
+                    String str = SelectorUtils.fastReplace( sel[i], "&", "" );
+                    if( str != sel[i] ) {
+                        sel[i] = str;
+                        if( sel == selectors ) {
+                            mergeCache = null; // the declaration was changed
+                        }
+                    }
                 }
             } else if( sel[0].charAt( 0 ) == '@' ) {
                 // media
                 bubbling( sel, mainSelector, formatter );
                 return;
             } else {
-                sel = SelectorUtils.merge( mainSelector, sel );
+                sel = sel == selectors ? merge( mainSelector ) : SelectorUtils.merge( mainSelector, sel );
             }
             formatter.addMixin( this, null, variables );
 
@@ -207,6 +224,33 @@ void appendTo( @Nullable String[] mainSelector, CssFormatter formatter ) {
         }
     }
 
+    /**
+     * Merge the selectors of this rule with the selectors of the parent. Nested rules and mixins are formatted many times
+     * with the same parent selectors. The last results are cached. The returned array must not be modified.
+     * 
+     * @param mainSelector
+     *            the selectors of the parent
+     * @return the merged selectors
+     */
+    private String[] merge( String[] mainSelector ) {
+        String[][] cache = mergeCache;
+        if( cache == null ) {
+            cache = mergeCache = new String[MERGE_CACHE_SIZE * 2][];
+        }
+        for( int i = 0; i < cache.length; i += 2 ) {
+            String[] key = cache[i];
+            if( key == mainSelector || (key != null && Arrays.equals( key, mainSelector )) ) {
+                return cache[i + 1];
+            }
+        }
+        String[] sel = SelectorUtils.merge( mainSelector, selectors );
+        int idx = mergeCacheIdx;
+        cache[idx] = mainSelector;
+        cache[idx + 1] = sel;
+        mergeCacheIdx = (idx + 2) % cache.length;
+        return sel;
+    }
+
     /**
      * Nested Directives are bubbling.
      * 
@@ -239,10 +283,10 @@ private void bubbling( String[] mediaSelector, String[] blockSelector, CssFormat
                     }
                 }
                 int size4 = block.getOutputSize();
-                block.endBlock();
                 if( size1 == size2 && size3 == size4 ) {
                     block.setOutputSize( size0 );
                 }
+                block.endBlock();
             } else {
                 // non-conditional directives for example @font-face or @keyframes
                 CssFormatter block = formatter.startBlock( mediaSelector );
@@ -262,7 +306,7 @@ private void bubbling( String[] mediaSelector, String[] blockSelector, CssFormat
             if( name.startsWith( "@media" ) ) {
                 rule.bubbling( new String[]{mediaSelector[0] + " and " + name.substring( 6 ).trim()}, blockSelector, formatter );
             } else {
-                rule.bubbling( mediaSelector, SelectorUtils.merge( blockSelector, ruleSelector ), formatter );
+                rule.bubbling( mediaSelector, rule.merge( blockSelector ), formatter );
             }
         }
     }
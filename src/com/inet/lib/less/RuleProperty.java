@@ -27,6 +27,7 @@
 package com.inet.lib.less;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * A single CSS property of a CSS rule in the format:
@@ -38,6 +39,9 @@ class RuleProperty implements Formattable {
     @Nonnull
     private final String     name;
 
+    @Nullable
+    private final PlaceHolderTemplate nameTemplate;
+
     @Nonnull
     private final Expression value;
 
@@ -51,6 +55,7 @@ class RuleProperty implements Formattable {
      */
     RuleProperty( @Nonnull String name, @Nonnull Expression value ) {
         this.name = name;
+        this.nameTemplate = PlaceHolderTemplate.compile( name );
         this.value = value;
     }
 
@@ -76,7 +81,7 @@ public void prepare( CssFormatter formatter ) {
     @Override
     public void appendTo( CssFormatter formatter ) {
         try {
-            formatter.appendProperty( name, value );
+            formatter.appendProperty( name, nameTemplate, value );
         } catch( Exception ex ) {
             throw value.createException( ex );
         }
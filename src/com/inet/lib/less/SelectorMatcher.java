@@ -0,0 +1,318 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Find all registered extending selectors in a selector with a single pass (Aho–Corasick automaton). The automaton is
+ * build lazy on the first match after new patterns was added. The found positions are used to replace the patterns
+ * without searching the selector again.
+ */
+final class SelectorMatcher {
+
+    private final HashMap<String, Integer> ids      = new HashMap<>();
+
+    private final ArrayList<String>        patterns = new ArrayList<>();
+
+    /** count of patterns in the current automaton */
+    private int                            built;
+
+    private int                            stateCount;
+
+    private char[]                         labels;
+
+    private int[]                          firstChild;
+
+    private int[]                          nextSibling;
+
+    private int[]                          fail;
+
+    /** the pattern id that end in a state or -1 */
+    private int[]                          output;
+
+    /** the next state in the fail chain with an output or 0 */
+    private int[]                          dictLink;
+
+    /** the transitions, the key is the state and the character */
+    private long[]                         keys;
+
+    private int[]                          targets;
+
+    private int                            mask;
+
+    /**
+     * Register an extending selector.
+     * 
+     * @param pattern the selector
+     * @return the id of the pattern, equals patterns has the same id
+     */
+    int add( String pattern ) {
+        Integer id = ids.get( pattern );
+        if( id == null ) {
+            id = patterns.size();
+            ids.put( pattern, id );
+            patterns.add( pattern );
+        }
+        return id;
+    }
+
+    /**
+     * The found patterns of a text.
+     */
+    static final class Matches {
+
+        private final String text;
+
+        private final BitSet ids;
+
+        /** pairs of pattern id and end index of the hits in the order of the end index */
+        private int[]        hits = new int[8];
+
+        private int          size;
+
+        /**
+         * Create an empty result.
+         * 
+         * @param text the searched text
+         * @param patternCount count of registered patterns
+         */
+        private Matches( String text, int patternCount ) {
+            this.text = text;
+            this.ids = new BitSet( patternCount );
+        }
+
+        /**
+         * Add a hit.
+         * 
+         * @param id the pattern id
+         * @param end the index after the last character of the pattern
+         */
+        private void add( int id, int end ) {
+            ids.set( id );
+            if( size == hits.length ) {
+                hits = Arrays.copyOf( hits, size * 2 );
+            }
+            hits[size++] = id;
+            hits[size++] = end;
+        }
+
+        /**
+         * If the pattern was found.
+         * 
+         * @param id the pattern id
+         * @return true, if found
+         */
+        boolean contains( int id ) {
+            return ids.get( id );
+        }
+
+        /**
+         * Replace all occurrences of a found pattern like String.replace() from left to right without overlapping.
+         * 
+         * @param id the pattern id
+         * @param pattern the pattern
+         * @param replacement the replacement
+         * @return the new text
+         */
+        String replace( int id, String pattern, String replacement ) {
+            int length = pattern.length();
+            if( length == 0 ) {
+                return text.replace( pattern, replacement );
+            }
+            StringBuilder builder = new StringBuilder( text.length() + replacement.length() );
+            int pos = 0;
+            for( int i = 0; i < size; i += 2 ) {
+                if( hits[i] == id ) {
+                    int start = hits[i + 1] - length;
+                    if( start >= pos ) {
+                        builder.append( text, pos, start ).append( replacement );
+                        pos = start + length;
+                    }
+                }
+            }
+            return builder.append( text, pos, text.length() ).toString();
+        }
+    }
+
+    /**
+     * Find all registered patterns that are contained in the text.
+     * 
+     * @param text the text, typically a selector
+     * @return the found patterns or null if nothing was found
+     */
+    @Nullable
+    Matches match( String text ) {
+        if( patterns.isEmpty() ) {
+            return null;
+        }
+        if( built != patterns.size() ) {
+            build();
+        }
+        Matches matches = null;
+        if( output[0] >= 0 ) { // empty pattern
+            matches = new Matches( text, patterns.size() );
+            matches.ids.set( output[0] );
+        }
+        int state = 0;
+        for( int i = 0; i < text.length(); i++ ) {
+            char ch = text.charAt( i );
+            int next;
+            while( (next = transition( state, ch )) < 0 && state != 0 ) {
+                state = fail[state];
+            }
+            state = next < 0 ? 0 : next;
+            for( int s = output[state] >= 0 ? state : dictLink[state]; s > 0; s = dictLink[s] ) {
+                if( matches == null ) {
+                    matches = new Matches( text, patterns.size() );
+                }
+                matches.add( output[s], i + 1 );
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Build the automaton for all registered patterns.
+     */
+    private void build() {
+        int capacity = 1;
+        for( String pattern : patterns ) {
+            capacity += pattern.length();
+        }
+        labels = new char[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        fail = new int[capacity];
+        output = new int[capacity];
+        dictLink = new int[capacity];
+        Arrays.fill( firstChild, -1 );
+        Arrays.fill( output, -1 );
+        int size = Integer.highestOneBit( capacity * 2 - 1 ) * 2;
+        keys = new long[size];
+        targets = new int[size];
+        Arrays.fill( keys, -1 );
+        mask = size - 1;
+        stateCount = 1;
+
+        // the trie
+        for( int id = 0; id < patterns.size(); id++ ) {
+            String pattern = patterns.get( id );
+            int state = 0;
+            for( int i = 0; i < pattern.length(); i++ ) {
+                char ch = pattern.charAt( i );
+                int next = transition( state, ch );
+                if( next < 0 ) {
+                    next = stateCount++;
+                    labels[next] = ch;
+                    nextSibling[next] = firstChild[state];
+                    firstChild[state] = next;
+                    put( state, ch, next );
+                }
+                state = next;
+            }
+            output[state] = id;
+        }
+
+        // the fail links in breadth first order
+        int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        while( head < tail ) {
+            int state = queue[head++];
+            for( int child = firstChild[state]; child >= 0; child = nextSibling[child] ) {
+                int f = 0;
+                if( state != 0 ) {
+                    char ch = labels[child];
+                    f = fail[state];
+                    int next;
+                    while( (next = transition( f, ch )) < 0 && f != 0 ) {
+                        f = fail[f];
+                    }
+                    f = next < 0 ? 0 : next;
+                }
+                fail[child] = f;
+                dictLink[child] = f != 0 && output[f] >= 0 ? f : dictLink[f];
+                queue[tail++] = child;
+            }
+        }
+        built = patterns.size();
+    }
+
+    /**
+     * Get the next state of the trie.
+     * 
+     * @param state the current state
+     * @param ch the character
+     * @return the next state or -1 if there is no transition
+     */
+    private int transition( int state, char ch ) {
+        long key = ((long)state << 16) | ch;
+        for( int idx = hash( key );; idx = (idx + 1) & mask ) {
+            long k = keys[idx];
+            if( k == key ) {
+                return targets[idx];
+            }
+            if( k == -1 ) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Add a transition.
+     * 
+     * @param state the current state
+     * @param ch the character
+     * @param next the next state
+     */
+    private void put( int state, char ch, int next ) {
+        long key = ((long)state << 16) | ch;
+        int idx = hash( key );
+        while( keys[idx] != -1 ) {
+            idx = (idx + 1) & mask;
+        }
+        keys[idx] = key;
+        targets[idx] = next;
+    }
+
+    /**
+     * The slot of a transition key.
+     * 
+     * @param key the key
+     * @return the slot index
+     */
+    private int hash( long key ) {
+        return (int)((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
@@ -0,0 +1,282 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Coalesce concurrent compiles of the same less data. It is only used if the option {@link Less#COALESCE} is set. If a
+ * compile with the same base URL, less data, options and reader factory is already running then the caller waits for it
+ * and receives the same result. Every waiting caller receives its own LessException on errors.
+ */
+final class SingleFlight {
+
+    private static final ConcurrentHashMap<Key, CompletableFuture<String>> FLIGHTS = new ConcurrentHashMap<>();
+
+    /** the count of running compiles of the current thread */
+    private static final ThreadLocal<int[]>                               DEPTH   = ThreadLocal.withInitial( () -> new int[1] );
+
+    /**
+     * Run the compile or wait for an identical running compile.
+     * 
+     * @param baseURL
+     *            the baseURL for import of external less data
+     * @param lessData
+     *            the input less data
+     * @param options
+     *            the options, not null
+     * @param readerFactory
+     *            the factory for the readers of imports
+     * @param compiler
+     *            the compile that is executed if there is no running compile
+     * @return the resulting CSS
+     * @throws LessException
+     *             if any error occur on compiling
+     */
+    static String compile( URL baseURL, String lessData, Map<String, String> options, ReaderFactory readerFactory, Supplier<String> compiler ) throws LessException {
+        if( !isCoalesce( options ) ) {
+            return run( compiler );
+        }
+        Key key = new Key( baseURL, lessData, options, readerFactory );
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> running = FLIGHTS.putIfAbsent( key, flight );
+        if( running != null ) {
+            try {
+                return running.join();
+            } catch( CompletionException ex ) {
+                throw wrap( ex.getCause() );
+            } catch( CancellationException ex ) {
+                throw wrap( ex );
+            }
+        }
+        try {
+            String css = run( compiler );
+            flight.complete( css );
+            return css;
+        } catch( Throwable th ) {
+            flight.completeExceptionally( th );
+            throw th;
+        } finally {
+            FLIGHTS.remove( key, flight );
+        }
+    }
+
+    /**
+     * Start the compile on the executor or use an identical running compile.
+     * 
+     * @param baseURL
+     *            the baseURL for import of external less data
+     * @param lessData
+     *            the input less data
+     * @param options
+     *            the options, not null
+     * @param readerFactory
+     *            the factory for the readers of imports
+     * @param compiler
+     *            the compile that is executed if there is no running compile
+     * @param executor
+     *            the executor for the compile
+     * @return the future of the resulting CSS
+     */
+    static CompletableFuture<String> compileAsync( URL baseURL, String lessData, Map<String, String> options, ReaderFactory readerFactory, Supplier<String> compiler, Executor executor ) {
+        if( !isCoalesce( options ) ) {
+            return start( compiler, executor );
+        }
+        Key key = new Key( baseURL, lessData, options, readerFactory );
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> running = FLIGHTS.putIfAbsent( key, flight );
+        CompletableFuture<String> result = new CompletableFuture<>();
+        if( running == null ) {
+            start( compiler, executor ).whenComplete( ( css, th ) -> {
+                FLIGHTS.remove( key, flight );
+                if( th == null ) {
+                    flight.complete( css );
+                    result.complete( css );
+                } else {
+                    flight.completeExceptionally( th );
+                    result.completeExceptionally( th );
+                }
+            } );
+        } else {
+            // a joiner receives its own exception and can not complete or cancel the shared future
+            running.whenComplete( ( css, th ) -> {
+                if( th == null ) {
+                    result.complete( css );
+                } else {
+                    result.completeExceptionally( wrap( th instanceof CompletionException ? th.getCause() : th ) );
+                }
+            } );
+        }
+        return result;
+    }
+
+    /**
+     * Coalescing is used only if it is enabled and the current thread does not run a compile. A compile inside a
+     * compile, for example from a custom function, can wait for its caller and must never join a running compile.
+     * 
+     * @param options
+     *            the options
+     * @return true, if identical compiles should be coalesced
+     */
+    private static boolean isCoalesce( Map<String, String> options ) {
+        return Boolean.parseBoolean( options.get( Less.COALESCE ) ) && DEPTH.get()[0] == 0;
+    }
+
+    /**
+     * Run the compiler on the current thread and count the running compiles of the thread.
+     * 
+     * @param compiler
+     *            the compiler
+     * @return the resulting CSS
+     */
+    private static String run( Supplier<String> compiler ) {
+        int[] depth = DEPTH.get();
+        depth[0]++;
+        try {
+            return compiler.get();
+        } finally {
+            depth[0]--;
+        }
+    }
+
+    /**
+     * Start the compiler on the executor.
+     * 
+     * @param compiler
+     *            the compiler
+     * @param executor
+     *            the executor for the compile
+     * @return the future of the resulting CSS
+     */
+    private static CompletableFuture<String> start( Supplier<String> compiler, Executor executor ) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            executor.execute( () -> {
+                if( future.isDone() ) {
+                    return; // canceled before start
+                }
+                try {
+                    future.complete( run( compiler ) );
+                } catch( Throwable th ) {
+                    future.completeExceptionally( th );
+                }
+            } );
+        } catch( RuntimeException ex ) {
+            // rejected by the executor
+            future.completeExceptionally( ex );
+        }
+        return future;
+    }
+
+    /**
+     * Create a new exception for a caller that has waited for the compile of another caller.
+     * 
+     * @param cause
+     *            the exception of the compile
+     * @return the exception for the caller
+     */
+    private static LessException wrap( Throwable cause ) {
+        if( cause instanceof LessException ) {
+            LessException lessEx = (LessException)cause;
+            LessException ex = new LessException( lessEx.getOriginalMessage(), lessEx );
+            for( LessFilePosition pos : lessEx.getPositions() ) {
+                ex.addPosition( pos.getFilename(), pos.getLine(), pos.getColumn() );
+            }
+            return ex;
+        }
+        return new LessException( cause );
+    }
+
+    /**
+     * The identity of a compile.
+     */
+    private static class Key {
+
+        private final String              baseURL;
+
+        private final String              lessData;
+
+        private final Map<String, String> options;
+
+        private final ReaderFactory       readerFactory;
+
+        private final int                 hash;
+
+        /**
+         * Create a new key.
+         * 
+         * @param baseURL
+         *            the baseURL, can be null
+         * @param lessData
+         *            the less data
+         * @param options
+         *            the options
+         * @param readerFactory
+         *            the reader factory, compared by identity
+         */
+        private Key( URL baseURL, String lessData, Map<String, String> options, ReaderFactory readerFactory ) {
+            // the string of the URL is used because URL.equals() resolve the host name
+            this.baseURL = baseURL == null ? null : baseURL.toString();
+            this.lessData = lessData;
+            this.options = new HashMap<>( options );
+            this.readerFactory = readerFactory;
+            this.hash = Objects.hash( this.baseURL, lessData, this.options ) * 31 + System.identityHashCode( readerFactory );
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals( Object obj ) {
+            if( this == obj ) {
+                return true;
+            }
+            if( !(obj instanceof Key) ) {
+                return false;
+            }
+            Key key = (Key)obj;
+            return hash == key.hash && readerFactory == key.readerFactory && Objects.equals( baseURL, key.baseURL ) && lessData.equals( key.lessData ) && options.equals( key.options );
+        }
+    }
+}
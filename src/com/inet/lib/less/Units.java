@@ -0,0 +1,191 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Registry of interned units. Every unit get a small integer id. The factors between convertible units are saved in a
+ * dense matrix so that the calculation with units need no string compare or map lookups. The registry contains only the
+ * units of CSS. Other units get an id in the scope of the current compile, so that the registry can not grow.
+ */
+final class Units {
+
+    /** The id of an empty unit. */
+    static final int                                   NONE    = 0;
+
+    /** The id of the percent unit. */
+    static final int                                   PERCENT = 1;
+
+    /** The id of the radian unit. */
+    static final int                                   RAD;
+
+    private static final HashMap<String, Integer>     IDS     = new HashMap<>();
+
+    private static String[]                            names   = new String[64];
+
+    /** the count of registered units, the first id of a unit of a compile */
+    private static int                                 count;
+
+    /** The group of the convertible units, the index is the unit id */
+    private static final int[]                         GROUPS;
+
+    /** The factor between 2 convertible units, the indices are the unit ids */
+    private static final double[][]                    FACTORS;
+
+    static {
+        register( "" );
+        register( "%" );
+
+        String[][] groups = { //
+                        { "m", "cm", "mm", "in", "px", "pt", "pc" }, // length
+                        { "s", "ms" }, // duration
+                        { "rad", "deg", "grad", "turn" } }; // angle
+        double[][] factors = { //
+                        { 1, 0.01, 0.001, 0.0254, 0.0254 / 96, 0.0254 / 72, 0.0254 / 72 * 12 }, //
+                        { 1, 0.001 }, //
+                        { 1 / (2 * Math.PI), 1 / 360.0, 1 / 400.0, 1 } };
+
+        int first = count;
+        int size = first;
+        for( String[] group : groups ) {
+            size += group.length;
+        }
+        double[] baseFactors = new double[size];
+        int[] unitGroups = new int[size];
+        for( int g = 0; g < groups.length; g++ ) {
+            for( int i = 0; i < groups[g].length; i++ ) {
+                int id = register( groups[g][i] );
+                baseFactors[id] = factors[g][i];
+                unitGroups[id] = g + 1;
+            }
+        }
+        GROUPS = unitGroups;
+        FACTORS = new double[size][size];
+        for( int left = first; left < size; left++ ) {
+            for( int right = first; right < size; right++ ) {
+                if( GROUPS[left] == GROUPS[right] ) {
+                    FACTORS[left][right] = baseFactors[left] / baseFactors[right];
+                }
+            }
+        }
+        RAD = IDS.get( "rad" );
+
+        // units without conversion
+        for( String unit : new String[] { "em", "ex", "ch", "rem", "ic", "cap", "lh", "rlh", "vw", "vh", "vi", "vb", "vmin", "vmax", "q", "Q", "Hz", "kHz", "hz", "khz", "dpi", "dpcm", "dppx", "x", "fr" } ) {
+            register( unit );
+        }
+    }
+
+    /**
+     * No instances.
+     */
+    private Units() {
+        // nothing
+    }
+
+    /**
+     * Register a new unit. This is only called from the static initializer.
+     * 
+     * @param unit the unit name
+     * @return the id of the unit
+     */
+    private static int register( String unit ) {
+        Integer id = IDS.get( unit );
+        if( id != null ) {
+            return id;
+        }
+        if( count == names.length ) {
+            names = Arrays.copyOf( names, count * 2 );
+        }
+        names[count] = unit;
+        IDS.put( unit, count );
+        return count++;
+    }
+
+    /**
+     * Get the id of a unit. A unit that is not registered get an id in the scope of the current compile.
+     * 
+     * @param unit the unit name, empty string for no unit
+     * @param formatter the formatter of the current compile
+     * @return the id
+     */
+    static int id( String unit, CssFormatter formatter ) {
+        if( unit.isEmpty() ) {
+            return NONE;
+        }
+        Integer id = IDS.get( unit );
+        if( id != null ) {
+            return id;
+        }
+        List<String> units = formatter.getUnknownUnits();
+        int idx = units.indexOf( unit );
+        if( idx < 0 ) {
+            idx = units.size();
+            units.add( unit );
+        }
+        return count + idx;
+    }
+
+    /**
+     * Get the name of a unit.
+     * 
+     * @param id the id of the unit
+     * @param formatter the formatter of the current compile
+     * @return the name, empty string for no unit
+     */
+    static String name( int id, CssFormatter formatter ) {
+        return id < count ? names[id] : formatter.getUnknownUnits().get( id - count );
+    }
+
+    /**
+     * Calculate the factor between 2 units.
+     * 
+     * @param leftUnit id of the left unit
+     * @param rightUnit id of the right unit
+     * @param fail true, should be fail if units incompatible; false, return 1 is incompatible
+     * @return the factor between the 2 units.
+     * @throws LessException if unit are incompatible and fail is true
+     */
+    static double factor( int leftUnit, int rightUnit, boolean fail ) {
+        if( leftUnit == NONE || rightUnit == NONE || leftUnit == rightUnit ) {
+            return 1;
+        }
+        if( leftUnit < GROUPS.length && rightUnit < GROUPS.length ) {
+            double factor = FACTORS[leftUnit][rightUnit];
+            if( factor != 0 ) {
+                return factor;
+            }
+        }
+        if( fail ) {
+            throw new LessException( "Incompatible types" );
+        }
+        return 1;
+    }
+}
@@ -26,25 +26,42 @@
  */
 package com.inet.lib.less;
 
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import javax.annotation.Nonnull;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
 /**
  * Implementation of the function svg-Gradient and other URL utils.
  */
 class UrlUtils {
 
-    private static Method base64;
-    private static Object encoder;
+    /** content from this size is not inlined by data-uri */
+    private static final int    DATA_URI_MAX_SIZE = 32 * 1024;
+
+    private static final char[] BASE64            = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private static final char[] HEX_DIGITS        = "0123456789ABCDEF".toCharArray();
+
+    /** the formatted results of data-uri and svg-gradient, the weight is the memory of the strings */
+    private static final BoundedCache<String, String> RESOURCES = new BoundedCache<>( Integer.MAX_VALUE, 16 * 1024 * 1024, str -> 40 + 2L * str.length() );
+
+    /** marker in the cache for content that is too large for a data-uri, compared by identity */
+    @SuppressFBWarnings( value = "DM_STRING_CTOR", justification = "a unique instance is needed as marker" )
+    private static final String TOO_LARGE = new String( "" );
 
     /**
      * Remove a quote if exists.
@@ -64,6 +81,15 @@ class UrlUtils {
         return str;
     }
 
+    /**
+     * Set the memory limit of the cache for the results of data-uri and svg-gradient.
+     * 
+     * @param bytes the limit in bytes
+     */
+    static void setCacheLimit( long bytes ) {
+        RESOURCES.setMaxWeight( bytes );
+    }
+
     /**
      * Implementation of the function svg-Gradient.
      * 
@@ -101,9 +127,10 @@ static void svgGradient( CssFormatter formatter, List<Expression> parameters ) {
             default:
                 throw new LessException( "error evaluating function `svg-gradient`: svg-gradient direction must be 'to bottom', 'to right', 'to bottom right', 'to top right' or 'ellipse at center'" );
         }
-        StringBuilder builder = new StringBuilder( "<?xml version=\"1.0\" ?><svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" width=\"100%\" height=\"100%\" viewBox=\"0 0 1 1\" preserveAspectRatio=\"none\">" );
-        builder.append( '<' ).append( gradientType ).append( "Gradient id=\"gradient\" gradientUnits=\"userSpaceOnUse\" " ).append( gradientDirection ).append( '>' );
-
+        int stops = parameters.size() - 1;
+        double[] colors = new double[stops];
+        double[] positions = new double[stops];
+        StringBuilder key = new StringBuilder( formatter.getClass().getName() ).append( '|' ).append( direction );
         for( int i = 1; i < parameters.size(); i++ ) {
             Expression param = parameters.get( i ).unpack( formatter );
             double color;
@@ -116,13 +143,25 @@ static void svgGradient( CssFormatter formatter, List<Expression> parameters ) {
                 color = ColorUtils.getColor( param, formatter );
                 position = (i - 1) / (parameters.size() - 2.0);
             }
+            colors[i - 1] = color;
+            positions[i - 1] = position;
+            key.append( '|' ).append( Double.doubleToRawLongBits( color ) ).append( ' ' ).append( Double.doubleToRawLongBits( position ) );
+        }
+        String cached = RESOURCES.get( key.toString() );
+        if( cached != null ) {
+            formatter.getOutput().append( cached );
+            return;
+        }
+
+        StringBuilder builder = new StringBuilder( "<?xml version=\"1.0\" ?><svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" width=\"100%\" height=\"100%\" viewBox=\"0 0 1 1\" preserveAspectRatio=\"none\">" );
+        builder.append( '<' ).append( gradientType ).append( "Gradient id=\"gradient\" gradientUnits=\"userSpaceOnUse\" " ).append( gradientDirection ).append( '>' );
+
+        for( int i = 0; i < stops; i++ ) {
+            double color = colors[i];
+            double position = positions[i];
             builder.append( "<stop offset=\"" );
             position *= 100;
-            if( position == (int)position ) {
-                builder.append( (int)position );
-            } else {
-                builder.append( formatter.getFormat().format( position ) );
-            }
+            NumberUtils.append( builder, position, formatter.isLeadingZero() );
             builder.append( "%\" stop-color=\"" );
             formatter.addOutput();
             formatter.appendColor( color, null );
@@ -138,9 +177,12 @@ static void svgGradient( CssFormatter formatter, List<Expression> parameters ) {
 
         byte[] bytes = builder.toString().getBytes( StandardCharsets.UTF_8 );
 
-        formatter.append( "url('data:image/svg+xml;base64," );
-        formatter.append( toBase64( bytes ) );
-        formatter.append( "\')" );
+        StringBuilder output = formatter.getOutput();
+        int start = output.length();
+        output.append( "url('data:image/svg+xml;base64," );
+        appendBase64( output, bytes, 0, bytes.length, true );
+        output.append( "\')" );
+        RESOURCES.put( key.toString(), output.substring( start ) );
     }
 
     /**
@@ -154,41 +196,37 @@ static void svgGradient( CssFormatter formatter, List<Expression> parameters ) {
      */
     static void dataUri( CssFormatter formatter, String relativeUrlStr, final String urlString, String type ) throws IOException {
         String urlStr = removeQuote( urlString );
+        String key = getCacheKey( formatter, relativeUrlStr, urlStr, type );
+        if( key != null ) {
+            String cached = RESOURCES.get( key );
+            if( cached == TOO_LARGE ) {
+                formatter.append( "url(" ).append( getRewrittenUrl( formatter, relativeUrlStr, urlString, urlStr ) ).append( ')' );
+                return;
+            }
+            if( cached != null ) {
+                formatter.getOutput().append( cached );
+                return;
+            }
+        }
         InputStream input = null;
+        int size = formatter.getOutputSize();
         try {
-            try {
-                URL url = formatter.getBaseURL();
-                url = new URL( url, urlStr );
-                if( !formatter.isRewriteUrlOff() ) {
-                    input = formatter.getReaderFactory().openStream(new URL( formatter.getBaseURL(), relativeUrlStr ), urlStr, "" );
-                }
-                else {
-                	 input = formatter.getReaderFactory().openStream( formatter.getBaseURL(),  urlStr, relativeUrlStr );
-                }
-            } catch( Exception e ) {
-                // try to do the default without rewrite, also if is a root url, remove that to see if the file can be found right besides the base less file.
-                input = formatter.getReaderFactory().openStream( formatter.getBaseURL(),  urlStr.startsWith( "/" ) ? urlStr.substring( 1 ): urlStr, relativeUrlStr );
+            input = openPrefetched( formatter, relativeUrlStr, urlStr );
+            if( input == null ) {
+                input = openStream( formatter, relativeUrlStr, urlStr );
             }
-            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-
-            int count;
-            byte[] data = new byte[16384];
-
-            while( (count = input.read( data, 0, data.length )) > 0 ) {
-                buffer.write( data, 0, count );
-                if( buffer.size() >= 32 * 1024 )
-                    break;
-            }
-
-            byte[] bytes = buffer.toByteArray();
-
-            if( bytes.length >= 32 * 1024 ) {
+            if( !dataUri( formatter, input, urlStr, type ) ) {
+                formatter.setOutputSize( size );
+                if( key != null ) {
+                    RESOURCES.put( key, TOO_LARGE ); // the content is not read again
+                }
                 String rewrittenUrl = getRewrittenUrl( formatter, relativeUrlStr, urlString, urlStr );
                 formatter.append( "url(" ).append( rewrittenUrl ).append( ')' );
-            } else {
-                dataUri( formatter, bytes, urlStr, type );
+            } else if( key != null ) {
+                RESOURCES.put( key, formatter.getOutput().substring( size ) );
             }
         } catch( Exception e ) {
+            formatter.setOutputSize( size );
             String rewrittenUrl = getRewrittenUrl( formatter, relativeUrlStr, urlString, urlStr );
             formatter.append( "url(" ).append( rewrittenUrl ).append( ')' );
             return;
@@ -198,6 +236,158 @@ static void dataUri( CssFormatter formatter, String relativeUrlStr, final String
         }
     }
 
+    /**
+     * Open the content of a data-uri.
+     * 
+     * @param formatter current formatter
+     * @param relativeUrlStr relative URL of the less script
+     * @param urlStr the url parameter of the function without quotes
+     * @return the stream, never null
+     * @throws IOException If any I/O errors occur on opening the content
+     */
+    static InputStream openStream( CssFormatter formatter, String relativeUrlStr, String urlStr ) throws IOException {
+        try {
+            if( !formatter.isRewriteUrlOff() ) {
+                return formatter.getReaderFactory().openStream( new URL( formatter.getBaseURL(), relativeUrlStr ), urlStr, "" );
+            } else {
+                return formatter.getReaderFactory().openStream( formatter.getBaseURL(), urlStr, relativeUrlStr );
+            }
+        } catch( Exception e ) {
+            // try to do the default without rewrite, also if is a root url, remove that to see if the file can be found right besides the base less file.
+            return formatter.getReaderFactory().openStream( formatter.getBaseURL(), urlStr.startsWith( "/" ) ? urlStr.substring( 1 ) : urlStr, relativeUrlStr );
+        }
+    }
+
+    /**
+     * Start reading the content of data-uri calls with constant URLs in parallel if the reader factory is thread safe.
+     * The formatting consumes the results later.
+     * 
+     * @param formatter the formatter with the options of the compile
+     * @param dataUris relative URL of the less file and URL parameter of the calls, see LessParser.getDataUris(), can be null
+     * @return the pending reads or null if nothing is read
+     */
+    static HashMap<String, FutureTask<byte[]>> prefetch( CssFormatter formatter, List<String[]> dataUris ) {
+        if( dataUris == null || dataUris.size() < 2 || !formatter.getReaderFactory().isThreadSafe() ) {
+            return null; // nothing to parallelize
+        }
+        HashMap<String, FutureTask<byte[]>> prefetches = new HashMap<>();
+        for( String[] dataUri : dataUris ) {
+            String relativeUrlStr = dataUri[0];
+            String urlStr = dataUri[1];
+            String key = relativeUrlStr + '|' + urlStr;
+            if( prefetches.containsKey( key ) || urlStr.startsWith( "data:" ) ) {
+                continue;
+            }
+            if( dataUri.length == 2 ) {
+                // without an explicit mime type we can check if the result is already cached
+                String cacheKey = getCacheKey( formatter, relativeUrlStr, urlStr, null );
+                if( cacheKey != null && RESOURCES.get( cacheKey ) != null ) {
+                    continue;
+                }
+            }
+            FutureTask<byte[]> task = new FutureTask<>( () -> {
+                try( InputStream input = openStream( formatter, relativeUrlStr, urlStr ) ) {
+                    return readContent( input );
+                }
+            } );
+            prefetches.put( key, task );
+            IoExecutor.get().execute( task );
+        }
+        return prefetches;
+    }
+
+    /**
+     * Cancel all reads that are not started.
+     * 
+     * @param prefetches the pending reads, can be null
+     */
+    static void cancelPrefetch( HashMap<String, FutureTask<byte[]>> prefetches ) {
+        if( prefetches != null ) {
+            for( Future<byte[]> future : prefetches.values() ) {
+                future.cancel( false );
+            }
+        }
+    }
+
+    /**
+     * Read the content of a data-uri. Content that is too large for a data-uri is only read until the limit.
+     * 
+     * @param input the stream
+     * @return the content
+     * @throws IOException If any I/O errors occur on reading the content
+     */
+    private static byte[] readContent( InputStream input ) throws IOException {
+        byte[] data = new byte[4096];
+        int total = 0;
+        int count;
+        while( total < DATA_URI_MAX_SIZE && (count = input.read( data, total, data.length - total )) > 0 ) {
+            total += count;
+            if( total == data.length ) {
+                data = Arrays.copyOf( data, Math.min( data.length * 2, DATA_URI_MAX_SIZE ) );
+            }
+        }
+        return Arrays.copyOf( data, total );
+    }
+
+    /**
+     * Get the prefetched content of a data-uri. If the read is not started then it runs on the current thread, else it
+     * waits until the read is finished.
+     * 
+     * @param formatter current formatter
+     * @param relativeUrlStr relative URL of the less script
+     * @param urlStr the url parameter of the function without quotes
+     * @return the content or null if it was not prefetched
+     * @throws IOException If any I/O errors occur on reading the content
+     */
+    private static InputStream openPrefetched( CssFormatter formatter, String relativeUrlStr, String urlStr ) throws IOException {
+        FutureTask<byte[]> task = formatter.getPrefetch( relativeUrlStr + '|' + urlStr );
+        if( task == null || task.isCancelled() ) {
+            return null;
+        }
+        task.run(); // does nothing if the task is already running or finished
+        try {
+            return new ByteArrayInputStream( task.get() );
+        } catch( ExecutionException ex ) {
+            Throwable cause = ex.getCause();
+            throw cause instanceof IOException ? (IOException)cause : new IOException( cause );
+        } catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Resolve the URL of a resource. This is the URL that the ReaderFactory try first.
+     * 
+     * @param formatter current formatter
+     * @param relativeUrlStr relative URL of the less script
+     * @param urlStr the URL of the resource without quotes
+     * @return the URL
+     * @throws MalformedURLException if there any problems with the URL
+     */
+    static URL getUrl( CssFormatter formatter, String relativeUrlStr, String urlStr ) throws MalformedURLException {
+        URL baseURL = formatter.getBaseURL();
+        return formatter.isRewriteUrlOff() ? new URL( baseURL, urlStr ) : new URL( new URL( baseURL, relativeUrlStr ), urlStr );
+    }
+
+    /**
+     * Get the key for the cache of data-uri results.
+     * 
+     * @param formatter current formatter
+     * @param relativeUrlStr relative URL of the less script
+     * @param urlStr the url parameter of the function without quotes
+     * @param type the mime type
+     * @return the key or null if the content can not be cached
+     */
+    private static String getCacheKey( CssFormatter formatter, String relativeUrlStr, String urlStr, String type ) {
+        try {
+            String stamp = formatter.getReaderFactory().getCacheKey( getUrl( formatter, relativeUrlStr, urlStr ) );
+            return stamp == null ? null : stamp + '|' + type;
+        } catch( Exception ex ) {
+            return null;
+        }
+    }
+
     /**
      * Create the rewritten URL
      * @param formatter current formatter
@@ -230,102 +420,146 @@ private static String getRewrittenUrl( CssFormatter formatter, String relativeUr
      * @param type the mime type
      */
     static void dataUri( CssFormatter formatter, byte[] bytes, String urlStr, String type ) {
+        type = mimeType( urlStr, type );
+        StringBuilder output = formatter.getOutput();
+        output.append( "url(\"data:" ).append( type ).append( ',' );
+        if( type.endsWith( "base64" ) ) {
+            appendBase64( output, bytes, 0, bytes.length, true );
+        } else {
+            appendEncode( output, bytes, 0, bytes.length );
+        }
+        output.append( "\")" );
+    }
+
+    /**
+     * Stream the content as inline url directly in the output.
+     * 
+     * @param formatter current formatter
+     * @param input the content
+     * @param urlStr used if mime type is null to detect the mime type
+     * @param type the mime type
+     * @return false, if the content is too large for an inline url. The written output must be removed.
+     * @throws IOException If any I/O errors occur on reading the content
+     */
+    private static boolean dataUri( CssFormatter formatter, InputStream input, String urlStr, String type ) throws IOException {
+        type = mimeType( urlStr, type );
+        boolean isBase64 = type.endsWith( "base64" );
+        StringBuilder output = formatter.getOutput();
+        output.append( "url(\"data:" ).append( type ).append( ',' );
+
+        byte[] data = new byte[16384];
+        int count;
+        int total = 0;
+        int rest = 0; // bytes of an incomplete base64 group
+        while( (count = input.read( data, rest, data.length - rest )) > 0 ) {
+            total += count;
+            if( total >= DATA_URI_MAX_SIZE ) {
+                return false;
+            }
+            int length = rest + count;
+            if( isBase64 ) {
+                int complete = length - length % 3;
+                appendBase64( output, data, 0, complete, false );
+                rest = length - complete;
+                System.arraycopy( data, complete, data, 0, rest );
+            } else {
+                appendEncode( output, data, 0, length );
+            }
+        }
+        if( isBase64 ) {
+            appendBase64( output, data, 0, rest, true );
+        }
+        output.append( "\")" );
+        return true;
+    }
+
+    /**
+     * Detect the mime type of a data uri.
+     * 
+     * @param urlStr used if mime type is null to detect the mime type
+     * @param type the mime type or null
+     * @return the mime type
+     */
+    private static String mimeType( String urlStr, String type ) {
         if( type == null ) {
             switch( urlStr.substring( urlStr.lastIndexOf( '.' ) + 1 ) ) {
                 case "gif": 
-                    type = "image/gif;base64";
-                    break;
+                    return "image/gif;base64";
                 case "png": 
-                    type = "image/png;base64";
-                    break;
+                    return "image/png;base64";
                 case "jpg":
                 case "jpeg":
-                    type = "image/jpeg;base64";
-                    break;
+                    return "image/jpeg;base64";
                 case "webp":
-                    type = "image/webp;base64";
-                    break;
+                    return "image/webp;base64";
                 case "svg":
-                    type = "image/svg+xml";
-                    break;
+                    return "image/svg+xml";
                 default: 
-                    type = "text/html";
+                    return "text/html";
             }
         } else {
-            type = removeQuote( type );
-        }
-
-        if( type.endsWith( "base64" ) ) {
-            formatter.append( "url(\"data:" ).append( type ).append( ',' );
-            formatter.append( toBase64( bytes ) );
-            formatter.append( "\")" );
-        } else {
-            formatter.append( "url(\"data:" ).append( type ).append( ',' );
-            appendEncode( formatter, bytes );
-            formatter.append( "\")" );
+            return removeQuote( type );
         }
     }
 
     /**
      * Append the bytes URL encoded.
      * 
-     * @param formatter current formatter
+     * @param output the target
      * @param bytes the bytes
+     * @param off the start offset in the bytes
+     * @param len the count of bytes
      */
-    private static void appendEncode( CssFormatter formatter, byte[] bytes ) {
-        for( byte b : bytes ) {
+    private static void appendEncode( StringBuilder output, byte[] bytes, int off, int len ) {
+        for( int i = off; i < off + len; i++ ) {
+            byte b = bytes[i];
             if ((b >= 'a' && b <= 'z' ) || (b >= 'A' && b <= 'Z' ) || (b >= '0' && b <= '9' )) {
-                formatter.append( (char )b );
+                output.append( (char )b );
             } else {
                 switch( b ) {
                     case '-':
                     case '_':
                     case '*':
                     case '.':
-                        formatter.append( (char )b );
+                        output.append( (char )b );
                         break;
                     default:
-                        formatter.append( '%' );
-                        formatter.append( Character.toUpperCase( Character.forDigit((b >> 4) & 0xF, 16) ) );
-                        formatter.append( Character.toUpperCase( Character.forDigit(b & 0xF, 16) ) );
+                        output.append( '%' );
+                        output.append( HEX_DIGITS[(b >> 4) & 0xF] );
+                        output.append( HEX_DIGITS[b & 0xF] );
                 }
             }
         }
     }
 
     /**
-     * Hack for base64 in Java 7 to Java 9.
-     * <ul>
-     * <li>In Java 7 we use: javax.xml.bind.DatatypeConverter.printBase64Binary( byte[] ) 
-     * <li>in Java 8-9 we use: java.util.Base64.getEncoder().encodeToString( byte[] )
-     * </ul>
-     * @param bytes the bytes to converted
-     * @return the base64 encoded string
-     * @throws LessException if the reflection does not work
+     * Append the bytes base64 encoded.
+     * 
+     * @param output the target
+     * @param bytes the bytes
+     * @param off the start offset in the bytes
+     * @param len the count of bytes, must be a multiple of 3 if it is not the end
+     * @param end true, if these are the last bytes and padding should be written
      */
-    private static String toBase64( byte[] bytes ) {
-        if( base64 == null ) {
-            try {
-                Class<?> clazz = Class.forName( "java.util.Base64" );
-                encoder = clazz.getMethod( "getEncoder" ).invoke( null );
-                base64 = encoder.getClass().getMethod( "encodeToString", byte[].class );
-                base64.setAccessible( true ); /// performance optimizing
-            } catch( Throwable th1 ) {
-                try {
-                    Class<?> clazz = Class.forName( "javax.xml.bind.DatatypeConverter" );
-                    base64 = clazz.getMethod( "printBase64Binary", byte[].class );
-                    encoder = null;
-                    base64.setAccessible( true ); /// performance optimizing
-                } catch( Throwable th2 ) {
-                    th1.addSuppressed( th2 );
-                    throw new LessException( th1 );
-                }
-            }
+    static void appendBase64( StringBuilder output, byte[] bytes, int off, int len, boolean end ) {
+        final char[] alphabet = BASE64;
+        int i = off;
+        int last = off + len - len % 3;
+        for( ; i < last; i += 3 ) {
+            int bits = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+            output.append( alphabet[bits >>> 18] ).append( alphabet[(bits >>> 12) & 0x3F] ).append( alphabet[(bits >>> 6) & 0x3F] ).append( alphabet[bits & 0x3F] );
         }
-        try {
-            return (String)base64.invoke( encoder, bytes );
-        } catch( Throwable th ) {
-            throw new LessException( th );
+        if( end ) {
+            switch( off + len - i ) {
+                case 1:
+                    int bits = (bytes[i] & 0xFF) << 16;
+                    output.append( alphabet[bits >>> 18] ).append( alphabet[(bits >>> 12) & 0x3F] ).append( "==" );
+                    break;
+                case 2:
+                    bits = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8;
+                    output.append( alphabet[bits >>> 18] ).append( alphabet[(bits >>> 12) & 0x3F] ).append( alphabet[(bits >>> 6) & 0x3F] ).append( '=' );
+                    break;
+            }
         }
     }
 }
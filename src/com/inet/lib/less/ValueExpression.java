@@ -38,7 +38,7 @@ class ValueExpression extends Expression {
 
     private double value;
 
-    private String unit;
+    private int    unit;
 
     private Operation op;
 
@@ -62,7 +62,7 @@ class ValueExpression extends Expression {
     ValueExpression( LessObject obj, String value, int type ) {
         super( obj, value );
         this.type = type;
-        this.unit = "";
+        this.unit = Units.NONE;
     }
 
     /**
@@ -75,7 +75,7 @@ class ValueExpression extends Expression {
         if( value instanceof Number ) {
             this.type = NUMBER;
             this.value = ((Number)value).doubleValue();
-            this.unit = "";
+            this.unit = Units.NONE;
         }
     }
 
@@ -87,7 +87,7 @@ class ValueExpression extends Expression {
         super( rule, "" );
         this.rule = rule;
         this.type = RULESET;
-        this.unit = "";
+        this.unit = Units.NONE;
     }
 
     /**
@@ -101,24 +101,60 @@ public static ValueExpression eval( CssFormatter formatter, Expression expr ) {
         if( expr.getClass() == ValueExpression.class ) {
             return (ValueExpression)expr;
         }
-        ValueExpression valueEx = new ValueExpression( expr, expr.stringValue( formatter ) );
-        valueEx.type = expr.getDataType( formatter );
-        valueEx.unit = expr.unit( formatter );
-        switch( valueEx.type ) {
-            case STRING:
-            case BOOLEAN:
-                break; //string is already set
-            case LIST:
-                Operation op = valueEx.op = new Operation( expr, ' ' );
-                ArrayList<Expression> operants = expr.listValue( formatter ).getOperands();
-                for( int j = 0; j < operants.size(); j++ ) {
-                    op.addOperand( ValueExpression.eval( formatter, operants.get( j ) ) );
+        String str;
+        EvaluationResult result = formatter.getEvaluationResult();
+        try {
+            if( expr.getClass() == Operation.class ) {
+                // a calculation is evaluated only once, the string is formatted from the result
+                try {
+                    formatter.addOutput();
+                    expr.evaluate( formatter, result );
+                    switch( result.type ) {
+                        case NUMBER:
+                        case PERCENT:
+                        case RGBA:
+                        case COLOR:
+                            result.appendTo( formatter );
+                            break;
+                        default:
+                            expr.appendTo( formatter );
+                    }
+                } catch( Exception ex ) {
+                    throw expr.createException( ex );
+                } finally {
+                    str = formatter.releaseOutput();
                 }
-                break;
-            default:
-                valueEx.value = expr.doubleValue( formatter );
+            } else {
+                str = expr.stringValue( formatter );
+                expr.evaluate( formatter, result );
+            }
+            ValueExpression valueEx = new ValueExpression( expr, str );
+            valueEx.type = result.type;
+            valueEx.unit = result.unit( expr, formatter );
+            switch( valueEx.type ) {
+                case STRING:
+                case BOOLEAN:
+                    break; //string is already set
+                case LIST:
+                    Operation op = valueEx.op = new Operation( expr, ' ' );
+                    ArrayList<Expression> operants = expr.listValue( formatter ).getOperands();
+                    for( int j = 0; j < operants.size(); j++ ) {
+                        op.addOperand( ValueExpression.eval( formatter, operants.get( j ) ) );
+                    }
+                    break;
+                case NUMBER:
+                case PERCENT:
+                case RGBA:
+                case COLOR:
+                    valueEx.value = result.doubleValue;
+                    break;
+                default:
+                    valueEx.value = expr.doubleValue( formatter );
+            }
+            return valueEx;
+        } finally {
+            formatter.freeEvaluationResult( result );
         }
-        return valueEx;
     }
 
     /**
@@ -144,6 +180,27 @@ public void appendTo( CssFormatter formatter ) {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void evaluate( CssFormatter formatter, EvaluationResult result ) {
+        if( type == UNKNOWN ) {
+            eval( formatter );
+        }
+        result.type = type;
+        switch( type ) {
+            case BOOLEAN:
+                result.booleanValue = booleanValue( formatter );
+                break;
+            case STRING:
+                break;
+            default:
+                result.doubleValue = value;
+        }
+        result.unit = unit;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -177,7 +234,7 @@ public String unit( CssFormatter formatter ) {
         if( type == UNKNOWN ) {
             eval( formatter );
         }
-        return unit;
+        return Units.name( unit, formatter );
     }
 
     /**
@@ -208,11 +265,11 @@ private void eval( CssFormatter formatter ) {
             String str = toString();
             if( str.endsWith( "%" ) ) {
                 value = Double.parseDouble( str.substring( 0, str.length() - 1 ) );
-                unit = "%";
+                unit = Units.PERCENT;
                 type = PERCENT;
                 return;
             }
-            unit = "";
+            unit = Units.NONE;
             long rgb;
             long alpha = ALPHA_1;
             if( str.startsWith( "#" ) ) {
@@ -322,7 +379,7 @@ private void eval( CssFormatter formatter ) {
                             }
                             value = number.doubleValue();
                             if( pos.getIndex() != str.length() ) {
-                                unit = str.substring( pos.getIndex() );
+                                unit = Units.id( str.substring( pos.getIndex() ), formatter );
                             }
                             type = NUMBER;
                             return;
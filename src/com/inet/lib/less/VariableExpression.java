@@ -48,6 +48,14 @@ public void appendTo( CssFormatter formatter ) {
         getValue( formatter ).appendTo( formatter );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void evaluate( CssFormatter formatter, EvaluationResult result ) {
+        getValue( formatter ).evaluate( formatter, result );
+    }
+
     /**
      * {@inheritDoc}
      */
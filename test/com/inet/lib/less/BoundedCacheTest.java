@@ -0,0 +1,119 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+    private static int count( BoundedCache<Integer, byte[]> cache, int keys ) {
+        int count = 0;
+        for( int i = 0; i < keys; i++ ) {
+            if( cache.get( i ) != null ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void getAndPut() {
+        BoundedCache<String, String> cache = new BoundedCache<>( 10 );
+        assertNull( cache.get( "a" ) );
+        cache.put( "a", "1" );
+        cache.put( "a", "2" );
+        assertEquals( "2", cache.get( "a" ) );
+    }
+
+    @Test
+    public void countLimit() {
+        BoundedCache<Integer, byte[]> cache = new BoundedCache<>( 8 );
+        for( int i = 0; i < 8; i++ ) {
+            cache.put( i, new byte[0] );
+        }
+        assertEquals( 8, count( cache, 8 ) );
+        cache.put( 8, new byte[0] );
+        // a quarter of the entries is removed
+        assertEquals( 7, count( cache, 9 ) );
+        assertTrue( cache.get( 8 ) != null );
+    }
+
+    @Test
+    public void weightLimitRemovesOnlyWhatIsNeeded() {
+        BoundedCache<Integer, byte[]> cache = new BoundedCache<>( Integer.MAX_VALUE, 1000, bytes -> bytes.length );
+        for( int i = 0; i < 9; i++ ) {
+            cache.put( i, new byte[100] );
+        }
+        cache.put( 9, new byte[200] );
+        assertEquals( 9, count( cache, 10 ) );
+        assertTrue( cache.get( 9 ) != null );
+    }
+
+    @Test
+    public void tooHeavy() {
+        BoundedCache<Integer, byte[]> cache = new BoundedCache<>( Integer.MAX_VALUE, 1000, bytes -> bytes.length );
+        cache.put( 0, new byte[100] );
+        cache.put( 1, new byte[1001] );
+        assertNull( cache.get( 1 ) );
+        assertEquals( 1, count( cache, 2 ) );
+    }
+
+    @Test
+    public void setMaxWeight() {
+        BoundedCache<Integer, byte[]> cache = new BoundedCache<>( Integer.MAX_VALUE, 1000, bytes -> bytes.length );
+        for( int i = 0; i < 10; i++ ) {
+            cache.put( i, new byte[100] );
+        }
+        cache.setMaxWeight( 300 );
+        assertEquals( 3, count( cache, 10 ) );
+        cache.clear();
+        assertEquals( 0, count( cache, 10 ) );
+        for( int i = 0; i < 3; i++ ) {
+            cache.put( i, new byte[100] );
+        }
+        assertEquals( 3, count( cache, 10 ) );
+    }
+
+    @Test
+    public void removeIf() {
+        BoundedCache<Integer, byte[]> cache = new BoundedCache<>( Integer.MAX_VALUE, 1000, bytes -> bytes.length );
+        for( int i = 0; i < 10; i++ ) {
+            cache.put( i, new byte[100] );
+        }
+        cache.removeIf( ( key, value ) -> key % 2 == 0 );
+        assertEquals( 5, count( cache, 10 ) );
+        // the weight of the removed entries is free again
+        for( int i = 10; i < 15; i++ ) {
+            cache.put( i, new byte[100] );
+        }
+        assertEquals( 10, count( cache, 15 ) );
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingReaderFactoryTest {
+
+    private final AtomicInteger reads    = new AtomicInteger();
+
+    private final ReaderFactory delegate = new ReaderFactory() {
+        @Override
+        public InputStream openStream( URL url ) throws IOException {
+            reads.incrementAndGet();
+            return super.openStream( url );
+        }
+    };
+
+    private File                dir;
+
+    @Before
+    public void createDir() throws IOException {
+        reads.set( 0 );
+        dir = Files.createTempDirectory( "jlessc" ).toFile();
+    }
+
+    @After
+    public void deleteDir() {
+        for( File file : dir.listFiles() ) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    private URL write( String name, String content, long lastModified ) throws IOException {
+        File file = new File( dir, name );
+        Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+        file.setLastModified( lastModified );
+        return file.toURI().toURL();
+    }
+
+    private static String read( Reader reader ) {
+        try( Scanner scanner = new Scanner( reader ) ) {
+            return scanner.useDelimiter( "\\A" ).next();
+        }
+    }
+
+    @Test
+    public void cached() throws IOException {
+        CachingReaderFactory factory = new CachingReaderFactory( delegate );
+        URL url = write( "a.less", "@a: 1;", 1000000000000L );
+        assertEquals( "@a: 1;", read( factory.create( url ) ) );
+        assertEquals( "@a: 1;", read( factory.create( url ) ) );
+        assertEquals( 1, reads.get() );
+    }
+
+    @Test
+    public void sizeChanged() throws IOException {
+        CachingReaderFactory factory = new CachingReaderFactory( delegate );
+        factory.setValidationInterval( 0 );
+        URL url = write( "a.less", "@a: 1;", 1000000000000L );
+        assertEquals( "@a: 1;", read( factory.create( url ) ) );
+        write( "a.less", "@a: 12;", 1000000000000L );
+        assertEquals( "@a: 12;", read( factory.create( url ) ) );
+        assertEquals( 2, reads.get() );
+    }
+
+    @Test
+    public void modificationTimeChanged() throws IOException {
+        CachingReaderFactory factory = new CachingReaderFactory( delegate );
+        factory.setValidationInterval( 0 );
+        URL url = write( "a.less", "@a: 1;", 1000000000000L );
+        assertEquals( "@a: 1;", read( factory.create( url ) ) );
+        write( "a.less", "@a: 2;", 1000000010000L );
+        assertEquals( "@a: 2;", read( factory.create( url ) ) );
+        assertEquals( 2, reads.get() );
+    }
+
+    @Test
+    public void validationInterval() throws IOException {
+        CachingReaderFactory factory = new CachingReaderFactory( delegate );
+        factory.setValidationInterval( 3600000 );
+        URL url = write( "a.less", "@a: 1;", 1000000000000L );
+        assertEquals( "@a: 1;", read( factory.create( url ) ) );
+        write( "a.less", "@a: 12;", 1000000010000L );
+        // not validated before the interval is elapsed
+        assertEquals( "@a: 1;", read( factory.create( url ) ) );
+        assertEquals( 1, reads.get() );
+
+        factory.setValidationInterval( 0 );
+        assertEquals( "@a: 12;", read( factory.create( url ) ) );
+        assertEquals( 2, reads.get() );
+    }
+
+    @Test
+    public void weightLimit() throws IOException {
+        CachingReaderFactory factory = new CachingReaderFactory( delegate );
+        factory.setMaxSize( 1000 );
+        char[] data = new char[400];
+        Arrays.fill( data, 'x' );
+        URL[] urls = new URL[3];
+        for( int i = 0; i < urls.length; i++ ) {
+            urls[i] = write( i + ".png", new String( data ), 1000000000000L );
+            factory.openStream( urls[i] ).close();
+        }
+        assertEquals( 3, reads.get() );
+        for( URL url : urls ) {
+            factory.openStream( url ).close();
+        }
+        // only two entries of 464 bytes fit into 1000 bytes
+        assertTrue( "reads: " + reads.get(), reads.get() > 3 );
+    }
+
+    @Test
+    public void versionToken() throws IOException {
+        URL url = new URL( "jar:file:/virtual/lib.jar!/x.less" );
+        String[] version = { "1" };
+        ReaderFactory source = new ReaderFactory() {
+            @Override
+            public InputStream openStream( URL url ) {
+                reads.incrementAndGet();
+                return new ByteArrayInputStream( ("@v: " + version[0] + ";").getBytes( StandardCharsets.UTF_8 ) );
+            }
+        };
+        CachingReaderFactory factory = new CachingReaderFactory( source, u -> version[0] );
+        factory.setValidationInterval( 0 );
+        assertEquals( "@v: 1;", read( factory.create( url ) ) );
+        assertEquals( "@v: 1;", read( factory.create( url ) ) );
+        assertEquals( 1, reads.get() );
+        version[0] = "2";
+        assertEquals( "@v: 2;", read( factory.create( url ) ) );
+        assertEquals( 2, reads.get() );
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClasspathReaderFactoryTest {
+
+    private File dir;
+
+    private File jar;
+
+    @Before
+    public void createDir() throws IOException {
+        dir = Files.createTempDirectory( "jlessc" ).toFile();
+        jar = new File( dir, "styles.jar" );
+    }
+
+    @After
+    public void deleteDir() {
+        for( File file : dir.listFiles() ) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    /**
+     * Write the jar file with a rename, so that an open jar file is not changed.
+     */
+    private void writeJar( long lastModified, String... nameAndContent ) throws IOException {
+        File temp = new File( dir, "temp.jar" );
+        try( JarOutputStream output = new JarOutputStream( Files.newOutputStream( temp.toPath() ) ) ) {
+            for( int i = 0; i < nameAndContent.length; i += 2 ) {
+                output.putNextEntry( new ZipEntry( nameAndContent[i] ) );
+                output.write( nameAndContent[i + 1].getBytes( StandardCharsets.UTF_8 ) );
+                output.closeEntry();
+            }
+        }
+        temp.setLastModified( lastModified );
+        Files.move( temp.toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    private URL url( String name ) throws IOException {
+        return new URL( "jar:" + jar.toURI().toURL() + "!/" + name );
+    }
+
+    private static String read( ReaderFactory factory, URL url ) throws IOException {
+        try( InputStream input = factory.openStream( url ); Scanner scanner = new Scanner( input, "UTF-8" ) ) {
+            return scanner.useDelimiter( "\\A" ).hasNext() ? scanner.next() : "";
+        }
+    }
+
+    @Test
+    public void compile() throws IOException {
+        writeJar( 1_000_000_000_000L, "main.less", "@import 'colors.less';\n.a { color: @main; }", "colors.less", "@main: #fff;" );
+        try( ClasspathReaderFactory factory = new ClasspathReaderFactory() ) {
+            URL url = url( "main.less" );
+            String css = Less.compile( url, read( factory, url ), true, factory );
+            assertEquals( ".a{color:#fff}", css );
+        }
+    }
+
+    @Test
+    public void missingEntry() throws IOException {
+        writeJar( 1_000_000_000_000L, "a.less", ".a{}" );
+        try( ClasspathReaderFactory factory = new ClasspathReaderFactory() ) {
+            read( factory, url( "b.less" ) );
+            fail( "FileNotFoundException expected" );
+        } catch( FileNotFoundException ex ) {
+            // expected
+        }
+    }
+
+    @Test
+    public void otherUrls() throws IOException {
+        File file = new File( dir, "a.less" );
+        Files.write( file.toPath(), ".a{}".getBytes( StandardCharsets.UTF_8 ) );
+        try( ClasspathReaderFactory factory = new ClasspathReaderFactory() ) {
+            URL url = file.toURI().toURL();
+            assertEquals( ".a{}", read( factory, url ) );
+            assertNull( factory.getStamp( url ) );
+        }
+    }
+
+    @Test
+    public void changedJar() throws IOException {
+        writeJar( 1_000_000_000_000L, "a.less", "first" );
+        try( ClasspathReaderFactory factory = new ClasspathReaderFactory() ) {
+            URL url = url( "a.less" );
+            assertEquals( "first", read( factory, url ) );
+            String stamp = factory.getStamp( url );
+
+            writeJar( 1_000_000_001_000L, "a.less", "second version" );
+            assertEquals( "second version", read( factory, url ) );
+            assertFalse( stamp.equals( factory.getStamp( url ) ) );
+        }
+    }
+
+    @Test
+    public void readAfterClose() throws IOException {
+        writeJar( 1_000_000_000_000L, "a.less", "content" );
+        ClasspathReaderFactory factory = new ClasspathReaderFactory();
+        URL url = url( "a.less" );
+        assertEquals( "content", read( factory, url ) );
+        factory.close();
+        assertEquals( "content", read( factory, url ) );
+        factory.close();
+    }
+
+    @Test
+    public void readWhileReplaced() throws Exception {
+        writeJar( 1_000_000_000_000L, "a.less", "v0" );
+        try( ClasspathReaderFactory factory = new ClasspathReaderFactory() ) {
+            factory.setMaxSize( 0 ); // read every time from the jar file
+            URL url = url( "a.less" );
+            AtomicBoolean running = new AtomicBoolean( true );
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            List<Thread> threads = new ArrayList<>();
+            for( int t = 0; t < 4; t++ ) {
+                Thread thread = new Thread( () -> {
+                    try {
+                        while( running.get() ) {
+                            assertTrue( read( factory, url ).startsWith( "v" ) );
+                        }
+                    } catch( Throwable th ) {
+                        error.compareAndSet( null, th );
+                    }
+                } );
+                thread.start();
+                threads.add( thread );
+            }
+            StringBuilder content = new StringBuilder( "v" );
+            for( int i = 1; i <= 50; i++ ) {
+                content.append( i );
+                writeJar( 1_000_000_000_000L + i * 1000, "a.less", content.toString() );
+                Thread.sleep( 2 );
+            }
+            running.set( false );
+            for( Thread thread : threads ) {
+                thread.join();
+            }
+            if( error.get() != null ) {
+                throw new AssertionError( error.get() );
+            }
+            assertEquals( content.toString(), read( factory, url ) );
+        }
+    }
+}
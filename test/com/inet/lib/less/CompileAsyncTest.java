@@ -0,0 +1,80 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class CompileAsyncTest {
+
+    @Test
+    public void complete() throws Exception {
+        CompletableFuture<String> future = Less.compileAsync( null, "@a: 1px; .b { c: @a + 1; }", true );
+        assertEquals( ".b{c:2px}", future.get( 10, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    public void failure() throws Exception {
+        CompletableFuture<String> future = Less.compileAsync( null, ".b { c: @undefined; }", true );
+        try {
+            future.get( 10, TimeUnit.SECONDS );
+            fail( "exception expected" );
+        } catch( ExecutionException ex ) {
+            assertTrue( ex.getCause() instanceof LessException );
+            assertTrue( ex.getCause().getMessage(), ex.getCause().getMessage().contains( "Undefined Variable" ) );
+        }
+    }
+
+    @Test
+    public void cancelDoesNotCancelOtherCallers() throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        Map<String, String> options = Collections.singletonMap( Less.COALESCE, "true" );
+        ReaderFactory factory = new ReaderFactory();
+        String lessData = ".b { c: 1 + 2; }";
+
+        CompletableFuture<String> first = Less.compileAsync( null, lessData, options, factory, tasks::add );
+        CompletableFuture<String> second = Less.compileAsync( null, lessData, options, factory, tasks::add );
+        assertEquals( 1, tasks.size() );
+
+        assertTrue( first.cancel( true ) );
+        tasks.get( 0 ).run();
+
+        assertTrue( first.isCancelled() );
+        assertEquals( ".b {\n  c: 3;\n}\n", second.get( 10, TimeUnit.SECONDS ) );
+    }
+}
@@ -3,6 +3,8 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+
 import org.junit.Test;
 
 public class ErrorTest {
@@ -92,6 +94,21 @@ public void propsInRoot() {
         assertLessException( "a: 5;", "Properties must be inside selector blocks, they cannot be in the root." );
     }
 
+    @Test
+    public void imageFunctionName() throws IOException {
+        MemoryReaderFactory factory = new MemoryReaderFactory();
+        factory.put( "/bad.png", new byte[] { 1, 2, 3 } );
+        for( String function : new String[] { "image-size", "image-width", "image-height" } ) {
+            try {
+                Less.compile( factory.getURL( "/main.less" ), ".a { a: " + function + "( 'bad.png' ); }", false, factory );
+                fail( "LessException expected" );
+            } catch( LessException lex ) {
+                String message = lex.getMessage();
+                assertEquals( "error evaluating function `" + function + "`: unsupported image format of 'bad.png'", message.substring( 0, message.indexOf( '\n' ) ) );
+            }
+        }
+    }
+
     /**
      * test for a JIT error
      * https://github.com/i-net-software/jlessc/issues/20
@@ -0,0 +1,125 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HashMultimapTest {
+
+    @Test
+    public void addAndGet() {
+        HashMultimap<String, String> map = new HashMultimap<>();
+        assertNull( map.get( "a" ) );
+        map.add( "a", "1" );
+        map.add( "a", "2" );
+        map.add( "b", "3" );
+        assertEquals( Arrays.asList( "1", "2" ), map.get( "a" ) );
+        assertEquals( Arrays.asList( "3" ), map.get( "b" ) );
+    }
+
+    @Test
+    public void parentOnly() {
+        HashMultimap<String, String> parent = new HashMultimap<>();
+        parent.add( "a", "1" );
+        HashMultimap<String, String> child = new HashMultimap<>( parent );
+        assertSame( parent.get( "a" ), child.get( "a" ) );
+        assertNull( child.get( "b" ) );
+    }
+
+    @Test
+    public void parentIsNotModified() {
+        HashMultimap<String, String> parent = new HashMultimap<>();
+        parent.add( "a", "1" );
+        HashMultimap<String, String> child = new HashMultimap<>( parent );
+        child.add( "a", "2" );
+        assertEquals( Arrays.asList( "2", "1" ), child.get( "a" ) );
+        assertEquals( Arrays.asList( "1" ), parent.get( "a" ) );
+    }
+
+    @Test
+    public void mergeOrder() {
+        HashMultimap<String, String> parent = new HashMultimap<>();
+        parent.add( "a", "1" );
+        HashMultimap<String, String> child = new HashMultimap<>( parent );
+        child.add( "a", "2" );
+        assertEquals( Arrays.asList( "2", "1" ), child.get( "a" ) );
+
+        // values added after a lookup follow the merged parent values
+        child.add( "a", "3" );
+        parent.add( "a", "4" );
+        assertEquals( Arrays.asList( "2", "1", "3", "4" ), child.get( "a" ) );
+        assertEquals( Arrays.asList( "1", "4" ), parent.get( "a" ) );
+    }
+
+    @Test
+    public void noDuplicates() {
+        HashMultimap<String, String> parent = new HashMultimap<>();
+        HashMultimap<String, String> child = new HashMultimap<>( parent );
+        for( int i = 0; i < 20; i++ ) {
+            parent.add( "a", "p" + i );
+            child.add( "a", "p" + (i * 2) );
+        }
+        List<String> values = child.get( "a" );
+        assertEquals( 30, values.size() );
+        assertEquals( 30, new HashSet<>( values ).size() );
+        assertEquals( 30, child.get( "a" ).size() );
+    }
+
+    @Test
+    public void grandParent() {
+        HashMultimap<String, String> root = new HashMultimap<>();
+        HashMultimap<String, String> parent = new HashMultimap<>( root );
+        HashMultimap<String, String> child = new HashMultimap<>( parent );
+        root.add( "a", "1" );
+        parent.add( "a", "2" );
+        child.add( "a", "3" );
+        assertEquals( Arrays.asList( "3", "2", "1" ), child.get( "a" ) );
+    }
+
+    @Test
+    public void addAll() {
+        HashMultimap<String, String> map = new HashMultimap<>();
+        map.add( "a", "1" );
+        HashMultimap<String, String> other = new HashMultimap<>();
+        for( int i = 0; i < 10; i++ ) {
+            other.add( "a", Integer.toString( i ) );
+        }
+        other.add( "b", "x" );
+        map.addAll( other );
+        map.addAll( map );
+        assertEquals( Arrays.asList( "1", "0", "2", "3", "4", "5", "6", "7", "8", "9" ), map.get( "a" ) );
+        assertEquals( Arrays.asList( "x" ), map.get( "b" ) );
+    }
+}
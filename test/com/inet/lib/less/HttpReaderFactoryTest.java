@@ -0,0 +1,230 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class HttpReaderFactoryTest {
+
+    private HttpServer          server;
+
+    private ExecutorService     executor;
+
+    private String              baseUrl;
+
+    private final AtomicInteger requests   = new AtomicInteger();
+
+    private final AtomicInteger downloads  = new AtomicInteger();
+
+    private final AtomicInteger running    = new AtomicInteger();
+
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    private final AtomicInteger images     = new AtomicInteger();
+
+    @Before
+    public void start() throws IOException {
+        requests.set( 0 );
+        downloads.set( 0 );
+        maxRunning.set( 0 );
+        images.set( 0 );
+        server = HttpServer.create( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ), 0 );
+        server.createContext( "/main.less", exchange -> {
+            requests.incrementAndGet();
+            if( "\"v1\"".equals( exchange.getRequestHeaders().getFirst( "If-None-Match" ) ) ) {
+                exchange.sendResponseHeaders( 304, -1 );
+                exchange.close();
+                return;
+            }
+            downloads.incrementAndGet();
+            exchange.getResponseHeaders().set( "ETag", "\"v1\"" );
+            send( exchange, "@a: 1px;".getBytes( StandardCharsets.UTF_8 ) );
+        } );
+        server.createContext( "/logo.svg", exchange -> {
+            images.incrementAndGet();
+            exchange.getResponseHeaders().set( "Last-Modified", "Mon, 19 Oct 2026 10:00:00 GMT" );
+            send( exchange, "<svg/>".getBytes( StandardCharsets.UTF_8 ) );
+        } );
+        server.createContext( "/gzip.less", exchange -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try( GZIPOutputStream gzip = new GZIPOutputStream( out ) ) {
+                gzip.write( "@b: 2px;".getBytes( StandardCharsets.UTF_8 ) );
+            }
+            exchange.getResponseHeaders().set( "Content-Encoding", "gzip" );
+            send( exchange, out.toByteArray() );
+        } );
+        server.createContext( "/slow", exchange -> {
+            int count = running.incrementAndGet();
+            maxRunning.accumulateAndGet( count, Math::max );
+            try {
+                Thread.sleep( 100 );
+            } catch( InterruptedException ex ) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            send( exchange, "slow".getBytes( StandardCharsets.UTF_8 ) );
+        } );
+        server.createContext( "/", exchange -> {
+            exchange.sendResponseHeaders( 404, -1 );
+            exchange.close();
+        } );
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor( executor );
+        server.start();
+        baseUrl = "http://" + server.getAddress().getHostString() + ':' + server.getAddress().getPort() + '/';
+    }
+
+    @After
+    public void stop() {
+        server.stop( 0 );
+        executor.shutdownNow();
+    }
+
+    private static void send( HttpExchange exchange, byte[] body ) throws IOException {
+        exchange.sendResponseHeaders( 200, body.length );
+        try( OutputStream out = exchange.getResponseBody() ) {
+            out.write( body );
+        }
+    }
+
+    private static String read( InputStream input ) {
+        try( Scanner scanner = new Scanner( input, "UTF-8" ) ) {
+            return scanner.useDelimiter( "\\A" ).next();
+        }
+    }
+
+    @Test
+    public void revalidate() throws IOException {
+        HttpReaderFactory factory = new HttpReaderFactory();
+        URL url = new URL( baseUrl + "main.less" );
+        assertEquals( "@a: 1px;", read( factory.openStream( url ) ) );
+        assertEquals( "@a: 1px;", read( factory.openStream( url ) ) );
+        assertEquals( 2, requests.get() );
+        assertEquals( 1, downloads.get() );
+    }
+
+    @Test
+    public void importWithRevalidate() throws IOException {
+        HttpReaderFactory factory = new HttpReaderFactory();
+        URL baseURL = new URL( baseUrl + "style.less" );
+        for( int i = 0; i < 2; i++ ) {
+            assertEquals( ".c{d:1px}", Less.compile( baseURL, "@import 'main.less'; .c { d: @a; }", true, factory ) );
+        }
+        assertEquals( 1, downloads.get() );
+    }
+
+    @Test
+    public void stamp() throws IOException {
+        HttpReaderFactory factory = new HttpReaderFactory();
+        URL url = new URL( baseUrl + "main.less" );
+        assertNull( factory.getStamp( url ) );
+        read( factory.openStream( url ) );
+        assertEquals( url + "|\"v1\"", factory.getStamp( url ) );
+
+        URL image = new URL( baseUrl + "logo.svg" );
+        read( factory.openStream( image ) );
+        assertEquals( image + "||Mon, 19 Oct 2026 10:00:00 GMT", factory.getStamp( image ) );
+
+        URL gzip = new URL( baseUrl + "gzip.less" );
+        read( factory.openStream( gzip ) );
+        assertNull( factory.getStamp( gzip ) ); // without validators nothing is cached
+
+        factory.clear();
+        assertNull( factory.getStamp( url ) );
+    }
+
+    @Test
+    public void cachedDataUri() throws IOException {
+        HttpReaderFactory factory = new HttpReaderFactory();
+        URL baseURL = new URL( baseUrl + "style.less" );
+        String expected = ".a{b:url(\"data:image/svg+xml;charset=UTF-8,%3Csvg%2F%3E\")}";
+        for( int i = 0; i < 3; i++ ) {
+            assertEquals( expected, Less.compile( baseURL, ".a { b: data-uri('image/svg+xml;charset=UTF-8', 'logo.svg'); }", true, factory ) );
+        }
+        // the first compile has no stamp, the second add the content to the cache of data-uri
+        assertEquals( 2, images.get() );
+    }
+
+    @Test
+    public void gzip() throws IOException {
+        HttpReaderFactory factory = new HttpReaderFactory();
+        assertEquals( "@b: 2px;", read( factory.openStream( new URL( baseUrl + "gzip.less" ) ) ) );
+    }
+
+    @Test( expected = FileNotFoundException.class )
+    public void notFound() throws IOException {
+        new HttpReaderFactory().openStream( new URL( baseUrl + "missing.less" ) );
+    }
+
+    @Test
+    public void parallelFetchLimit() throws Exception {
+        HttpReaderFactory factory = new HttpReaderFactory();
+        factory.setMaxParallelFetches( 2 );
+        ExecutorService clients = Executors.newFixedThreadPool( 8 );
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for( int i = 0; i < 8; i++ ) {
+                URL url = new URL( baseUrl + "slow?" + i );
+                results.add( clients.submit( () -> read( factory.openStream( url ) ) ) );
+            }
+            for( Future<String> result : results ) {
+                assertEquals( "slow", result.get( 30, TimeUnit.SECONDS ) );
+            }
+        } finally {
+            clients.shutdown();
+        }
+        assertTrue( "parallel fetches: " + maxRunning.get(), maxRunning.get() <= 2 );
+    }
+}
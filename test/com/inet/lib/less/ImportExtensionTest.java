@@ -0,0 +1,76 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.Test;
+
+public class ImportExtensionTest {
+
+    @Test
+    public void localProtocols() throws IOException {
+        assertTrue( LessParser.isLocalFile( new URL( "file:/styles/main.less" ) ) );
+        assertTrue( LessParser.isLocalFile( new URL( "jar:file:/lib/styles.jar!/main.less" ) ) );
+        assertTrue( LessParser.isLocalFile( new MemoryReaderFactory().getURL( "/main.less" ) ) );
+        assertFalse( LessParser.isLocalFile( new URL( "http://example.com/main.less" ) ) );
+    }
+
+    @Test
+    public void memory() throws IOException {
+        MemoryReaderFactory factory = new MemoryReaderFactory();
+        factory.put( "/theme/colors.less", "@main: #fff;" );
+        URL url = factory.getURL( "/theme/main.less" );
+        assertEquals( ".a{color:#fff}", Less.compile( url, "@import 'colors'; .a { color: @main; }", true, factory ) );
+    }
+
+    @Test
+    public void jarWithDefaultReaderFactory() throws IOException {
+        File jar = File.createTempFile( "jlessc", ".jar" );
+        try {
+            try( JarOutputStream output = new JarOutputStream( Files.newOutputStream( jar.toPath() ) ) ) {
+                output.putNextEntry( new ZipEntry( "theme/colors.less" ) );
+                output.write( "@main: #fff;".getBytes( StandardCharsets.UTF_8 ) );
+                output.closeEntry();
+            }
+            URL url = new URL( "jar:" + jar.toURI().toURL() + "!/theme/main.less" );
+            assertEquals( ".a{color:#fff}", Less.compile( url, "@import 'colors'; .a { color: @main; }", true, new ReaderFactory() ) );
+        } finally {
+            jar.delete();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+public class ImportKeyTest {
+
+    @Test
+    public void memory() throws IOException {
+        MemoryReaderFactory factory = new MemoryReaderFactory();
+        factory.put( "/theme/b.less", ".b{x:1}" );
+        URL url = factory.getURL( "/theme/main.less" );
+        String less = "@import 'b.less'; @import './b.less'; @import '../theme/b.less'; @import 'sub/../b.less';";
+        assertEquals( ".b{x:1}", Less.compile( url, less, true, factory ) );
+    }
+
+    @Test
+    public void multiple() throws IOException {
+        MemoryReaderFactory factory = new MemoryReaderFactory();
+        factory.put( "/theme/b.less", ".b{x:1}" );
+        URL url = factory.getURL( "/theme/main.less" );
+        String less = "@import (multiple) 'b.less'; @import (multiple) './b.less';";
+        assertEquals( ".b{x:1;x:1}", Less.compile( url, less, true, factory ) );
+    }
+
+    @Test
+    public void file() throws IOException {
+        File dir = Files.createTempDirectory( "jlessc" ).toFile();
+        File sub = new File( dir, "sub" );
+        File b = new File( dir, "b.less" );
+        try {
+            sub.mkdir();
+            Files.write( b.toPath(), ".b{x:1}".getBytes( StandardCharsets.UTF_8 ) );
+            URL url = new File( dir, "main.less" ).toURI().toURL();
+            String less = "@import 'b.less'; @import './b.less'; @import 'sub/../b.less';";
+            assertEquals( ".b{x:1}", Less.compile( url, less, true ) );
+        } finally {
+            b.delete();
+            sub.delete();
+            dir.delete();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+public class ImportPrefetcherTest {
+
+    /**
+     * A factory with less files in memory that records the reading threads.
+     */
+    private static class TestFactory extends ReaderFactory {
+
+        private final Map<String, String> files   = new ConcurrentHashMap<>();
+
+        private final Map<String, Thread> threads = new ConcurrentHashMap<>();
+
+        private final boolean             threadSafe;
+
+        TestFactory( boolean threadSafe ) {
+            this.threadSafe = threadSafe;
+        }
+
+        @Override
+        public Reader create( URL url ) throws IOException {
+            String content = files.get( url.getPath() );
+            if( content == null ) {
+                throw new IOException( url.toString() );
+            }
+            threads.put( url.getPath(), Thread.currentThread() );
+            return new StringReader( content );
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return threadSafe;
+        }
+    }
+
+    private static String read( Reader reader ) {
+        try( Scanner scanner = new Scanner( reader ) ) {
+            return scanner.useDelimiter( "\\A" ).next();
+        }
+    }
+
+    @Test
+    public void scanSkipsCommentsAndStrings() throws IOException {
+        TestFactory factory = new TestFactory( true );
+        factory.files.put( "/x/a.less", "@import 'b';" );
+        factory.files.put( "/x/b.less", "@b: 1;" );
+        ImportPrefetcher prefetcher = new ImportPrefetcher( factory );
+        URL base = new URL( "file:/x/main.less" );
+        prefetcher.scan( base, "// @import 'c1';\n/* @import 'c2'; */ .a { b: \"@import 'c3'\"; c: url(http://h/@import); }\n@import (less) 'a';" );
+
+        assertEquals( "@import 'b';", read( prefetcher.open( new URL( base, "a.less" ) ) ) );
+        // nested imports are scanned too
+        assertEquals( "@b: 1;", read( prefetcher.open( new URL( base, "b.less" ) ) ) );
+        assertNull( prefetcher.open( new URL( base, "c1.less" ) ) );
+        assertNull( prefetcher.open( new URL( base, "c2.less" ) ) );
+        assertNull( prefetcher.open( new URL( base, "c3.less" ) ) );
+        prefetcher.cancel();
+    }
+
+    @Test
+    public void noReadsAfterCancel() throws IOException {
+        TestFactory factory = new TestFactory( true );
+        factory.files.put( "/x/a.less", "@a: 1;" );
+        ImportPrefetcher prefetcher = new ImportPrefetcher( factory );
+        prefetcher.cancel();
+        URL base = new URL( "file:/x/main.less" );
+        prefetcher.scan( base, "@import 'a';" );
+        assertNull( prefetcher.open( new URL( base, "a.less" ) ) );
+        assertTrue( factory.threads.isEmpty() );
+    }
+
+    @Test
+    public void notThreadSafeFactory() throws IOException {
+        TestFactory factory = new TestFactory( false );
+        factory.files.put( "/x/a.less", "@import 'b'; .a { c: @b; }" );
+        factory.files.put( "/x/b.less", "@b: 1;" );
+        assertEquals( ".a{c:1}", Less.compile( new URL( "file:/x/main.less" ), "@import 'a';", true, factory ) );
+        assertEquals( 2, factory.threads.size() );
+        for( Thread thread : factory.threads.values() ) {
+            assertTrue( thread == Thread.currentThread() );
+        }
+    }
+
+    @Test
+    public void threadSafeFactory() throws IOException {
+        TestFactory factory = new TestFactory( true );
+        factory.files.put( "/x/a.less", "@import 'b'; .a { c: @b; }" );
+        factory.files.put( "/x/b.less", "@b: 1;" );
+        assertEquals( ".a{c:1}", Less.compile( new URL( "file:/x/main.less" ), "@import 'a';", true, factory ) );
+        assertEquals( 2, factory.threads.size() );
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+public class MemoryReaderFactoryTest {
+
+    private static byte[] readBytes( InputStream input ) throws IOException {
+        try( InputStream in = input ) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int count;
+            while( (count = in.read( buffer )) > 0 ) {
+                output.write( buffer, 0, count );
+            }
+            return output.toByteArray();
+        }
+    }
+
+    private static String readText( Reader reader ) throws IOException {
+        try( Reader in = reader ) {
+            StringBuilder builder = new StringBuilder();
+            char[] buffer = new char[1024];
+            int count;
+            while( (count = in.read( buffer )) > 0 ) {
+                builder.append( buffer, 0, count );
+            }
+            return builder.toString();
+        }
+    }
+
+    @Test
+    public void textAndBytes() throws IOException {
+        MemoryReaderFactory factory = new MemoryReaderFactory();
+        factory.put( "/a.less", "ä{}" );
+        factory.put( "b.png", new byte[] { 1, 2, 3 } );
+        assertEquals( "ä{}", readText( factory.create( factory.getURL( "/a.less" ) ) ) );
+        assertArrayEquals( "ä{}".getBytes( StandardCharsets.UTF_8 ), readBytes( factory.openStream( factory.getURL( "a.less" ) ) ) );
+        assertArrayEquals( new byte[] { 1, 2, 3 }, readBytes( factory.openStream( factory.getURL( "/b.png" ) ) ) );
+    }
+
+    @Test
+    public void urlWithoutFactory() throws IOException {
+        MemoryReaderFactory factory = new MemoryReaderFactory();
+        factory.put( "/a.less", "a{}" );
+        URL url = factory.getURL( "/a.less" );
+        assertArrayEquals( "a{}".getBytes( StandardCharsets.UTF_8 ), readBytes( url.openStream() ) );
+        assertArrayEquals( "a{}".getBytes( StandardCharsets.UTF_8 ), readBytes( new URL( url, "./a.less" ).openStream() ) );
+    }
+
+    @Test
+    public void missing() throws IOException {
+        MemoryReaderFactory factory = new MemoryReaderFactory();
+        URL url = factory.getURL( "/a.less" );
+        assertNull( factory.getStamp( url ) );
+        try {
+            factory.openStream( url );
+            fail( "FileNotFoundException expected" );
+        } catch( FileNotFoundException ex ) {
+            // expected
+        }
+    }
+
+    @Test
+    public void normalizedPath() throws IOException {
+        MemoryReaderFactory factory = new MemoryReaderFactory();
+        factory.put( "/theme/../a.less", "a{}" );
+        assertEquals( "a{}", readText( factory.create( factory.getURL( "/x/./../a.less" ) ) ) );
+        factory.remove( "./a.less" );
+        try {
+            factory.create( factory.getURL( "/a.less" ) );
+            fail( "FileNotFoundException expected" );
+        } catch( FileNotFoundException ex ) {
+            // expected
+        }
+    }
+
+    @Test
+    public void stamps() throws IOException {
+        MemoryReaderFactory first = new MemoryReaderFactory();
+        MemoryReaderFactory second = new MemoryReaderFactory();
+        first.put( "/a.less", "a{}" );
+        second.put( "/a.less", "a{}" );
+        URL url = first.getURL( "/a.less" );
+        String stamp = first.getStamp( url );
+        assertEquals( stamp, first.getStamp( url ) );
+        assertFalse( stamp.equals( second.getStamp( url ) ) );
+        first.put( "/a.less", "a{}" );
+        assertFalse( stamp.equals( first.getStamp( url ) ) );
+    }
+
+    @Test
+    public void setFiles() throws IOException {
+        MemoryReaderFactory factory = new MemoryReaderFactory();
+        factory.put( "/old.less", "old{}" );
+        HashMap<String, Object> files = new HashMap<>();
+        files.put( "/a.less", "a{}" );
+        files.put( "memory:/b.less", new byte[] { 'b' } );
+        factory.setFiles( files );
+        assertNull( factory.getStamp( factory.getURL( "/old.less" ) ) );
+        assertEquals( "a{}", readText( factory.create( factory.getURL( "/a.less" ) ) ) );
+        assertEquals( "b", readText( factory.create( factory.getURL( "/b.less" ) ) ) );
+
+        files.put( "/c.less", Integer.valueOf( 1 ) );
+        try {
+            factory.setFiles( files );
+            fail( "IllegalArgumentException expected" );
+        } catch( IllegalArgumentException ex ) {
+            // expected, nothing is changed
+        }
+        assertTrue( factory.getStamp( factory.getURL( "/a.less" ) ) != null );
+    }
+
+    @Test
+    public void otherUrls() throws IOException {
+        File file = File.createTempFile( "jlessc", ".less" );
+        try {
+            Files.write( file.toPath(), "f{}".getBytes( StandardCharsets.UTF_8 ) );
+            MemoryReaderFactory factory = new MemoryReaderFactory();
+            URL url = file.toURI().toURL();
+            assertEquals( "f{}", readText( factory.create( url ) ) );
+            factory.put( url.toString(), "m{}" );
+            assertEquals( "m{}", readText( factory.create( url ) ) );
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void compile() throws IOException {
+        MemoryReaderFactory factory = new MemoryReaderFactory();
+        factory.put( "/theme/colors.less", "@main: #fff;" );
+        factory.put( "/theme/logo.svg", "<svg/>" );
+        URL url = factory.getURL( "/theme/main.less" );
+        String css = Less.compile( url, "@import 'colors.less'; .a { color: @main; b: data-uri('image/svg+xml;charset=UTF-8', 'logo.svg'); }", true, factory );
+        assertEquals( ".a{color:#fff;b:url(\"data:image/svg+xml;charset=UTF-8,%3Csvg%2F%3E\")}", css );
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class NumberUtilsTest {
+
+    private static String format( double value, boolean leadingZero ) {
+        StringBuilder output = new StringBuilder();
+        NumberUtils.append( output, value, leadingZero );
+        return output.toString();
+    }
+
+    /**
+     * The formatting before NumberUtils.
+     */
+    private static String decimalFormat( double value, boolean leadingZero ) {
+        if( value == (int)value ) {
+            return Integer.toString( (int)value );
+        }
+        DecimalFormat format = new DecimalFormat( "#.########", DecimalFormatSymbols.getInstance( Locale.ENGLISH ) );
+        format.setRoundingMode( RoundingMode.HALF_EVEN );
+        if( !leadingZero ) {
+            format.setMinimumIntegerDigits( 0 );
+        }
+        return format.format( value );
+    }
+
+    private static void assertFormat( double value ) {
+        assertEquals( Double.toString( value ), decimalFormat( value, false ), format( value, false ) );
+        assertEquals( Double.toString( value ), decimalFormat( value, true ), format( value, true ) );
+    }
+
+    @Test
+    public void integers() {
+        assertEquals( "0", format( 0, false ) );
+        assertEquals( "42", format( 42, false ) );
+        assertEquals( "-7", format( -7, true ) );
+    }
+
+    @Test
+    public void fractions() {
+        assertEquals( ".5", format( 0.5, false ) );
+        assertEquals( "0.5", format( 0.5, true ) );
+        assertEquals( "-.25", format( -0.25, false ) );
+        assertEquals( "-0.25", format( -0.25, true ) );
+        assertEquals( "1.33333333", format( 4 / 3.0, true ) );
+        assertEquals( "0.00000001", format( 0.00000001, true ) );
+        assertEquals( "0", format( 0.000000001, true ) );
+    }
+
+    @Test
+    public void special() {
+        assertEquals( "NaN", format( Double.NaN, true ) );
+        assertEquals( "∞", format( Double.POSITIVE_INFINITY, true ) );
+        assertEquals( "-∞", format( Double.NEGATIVE_INFINITY, true ) );
+    }
+
+    @Test
+    public void likeDecimalFormat() {
+        double[] values = { 0.125, 0.000000005, 0.000000015, 0.000000025, 1.000000005, 2.5e-9, 123456.789, 1e6 + 0.5, 3e9,
+                        1e15 + 0.25, -1e12 - 0.75, 0.1 + 0.2, 1.005, 1e-5 };
+        for( double value : values ) {
+            assertFormat( value );
+            assertFormat( -value );
+        }
+    }
+
+    @Test
+    public void likeDecimalFormatRandom() {
+        Random random = new Random( 42 );
+        for( int i = 0; i < 20000; i++ ) {
+            assertFormat( random.nextInt( 2000 ) / 8.0 - 1000 );
+            assertFormat( random.nextInt( 2000000 ) / 1e6 );
+            assertFormat( (random.nextDouble() - 0.5) * Math.pow( 10, random.nextInt( 16 ) - 6 ) );
+            assertFormat( Math.round( random.nextDouble() * 1e9 ) / 1e9 + 0.000000005 );
+        }
+    }
+}
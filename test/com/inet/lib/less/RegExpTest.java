@@ -0,0 +1,85 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class RegExpTest {
+
+    @Test
+    public void cached() throws Exception {
+        RegExp regExp = RegExp.compile( "a+", "g" );
+        assertSame( regExp, RegExp.compile( "a+", "g" ) );
+        assertSame( RegExp.compile( "a+", "gi" ), RegExp.compile( "a+", "ig" ) );
+        assertTrue( regExp != RegExp.compile( "a+", "" ) );
+        assertTrue( regExp != RegExp.compile( "a*", "g" ) );
+    }
+
+    @Test
+    public void invalidFlag() {
+        try {
+            RegExp.compile( "a", "x" );
+            fail( "ParameterOutOfBoundsException expected" );
+        } catch( ParameterOutOfBoundsException ex ) {
+            // expected
+        }
+    }
+
+    @Test
+    public void flags() throws Exception {
+        assertEquals( "xbab", RegExp.compile( "a", "" ).replace( "abab", "x" ) );
+        assertEquals( "xbxb", RegExp.compile( "a", "g" ).replace( "abab", "x" ) );
+        assertEquals( "xbxb", RegExp.compile( "A", "gi" ).replace( "abab", "x" ) );
+        assertEquals( "a\nx", RegExp.compile( "^b", "m" ).replace( "a\nb", "x" ) );
+    }
+
+    @Test
+    public void replacement() throws Exception {
+        RegExp regExp = RegExp.compile( "b", "g" );
+        assertEquals( "a[b]c", regExp.replace( "abc", "[$&]" ) );
+        assertEquals( "a$c", regExp.replace( "abc", "$$" ) );
+        assertEquals( "a$&c", regExp.replace( "abc", "$$&" ) );
+        assertEquals( "a\\c", regExp.replace( "abc", "\\" ) );
+        // the cached replacement with another expression
+        assertEquals( "[a]bc", RegExp.compile( "a", "" ).replace( "abc", "[$&]" ) );
+    }
+
+    @Test
+    public void unsupportedReplacement() {
+        try {
+            RegExp.compile( "b", "" ).replace( "abc", "$`" );
+            fail( "ParameterOutOfBoundsException expected" );
+        } catch( ParameterOutOfBoundsException ex ) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SelectorMatcherTest {
+
+    @Test
+    public void noPatterns() {
+        assertNull( new SelectorMatcher().match( ".a" ) );
+    }
+
+    @Test
+    public void samePatternSameId() {
+        SelectorMatcher matcher = new SelectorMatcher();
+        int a = matcher.add( ".a" );
+        int b = matcher.add( ".b" );
+        assertEquals( a, matcher.add( ".a" ) );
+        assertTrue( a != b );
+    }
+
+    @Test
+    public void match() {
+        SelectorMatcher matcher = new SelectorMatcher();
+        int a = matcher.add( ".a" );
+        int ab = matcher.add( ".a.b" );
+        int c = matcher.add( ".c" );
+        assertNull( matcher.match( ".d .e" ) );
+
+        SelectorMatcher.Matches matches = matcher.match( "div .a.b" );
+        assertTrue( matches.contains( a ) );
+        assertTrue( matches.contains( ab ) );
+        assertFalse( matches.contains( c ) );
+    }
+
+    @Test
+    public void addAfterMatch() {
+        SelectorMatcher matcher = new SelectorMatcher();
+        matcher.add( ".a" );
+        assertNull( matcher.match( ".b" ) );
+        int b = matcher.add( ".b" );
+        assertTrue( matcher.match( ".b" ).contains( b ) );
+    }
+
+    @Test
+    public void replace() {
+        SelectorMatcher matcher = new SelectorMatcher();
+        int a = matcher.add( ".a" );
+        int aa = matcher.add( "aa" );
+        assertEquals( ".x > .x:hover", matcher.match( ".a > .a:hover" ).replace( a, ".a", ".x" ) );
+        assertEquals( "xa", matcher.match( "aaa" ).replace( aa, "aa", "x" ) );
+        assertEquals( "xx", matcher.match( "aaaa" ).replace( aa, "aa", "x" ) );
+    }
+
+    @Test
+    public void replaceLikeString() {
+        String[] patterns = { "a", "ab", "ba", "aba", "bb", "b.a", ".a" };
+        SelectorMatcher matcher = new SelectorMatcher();
+        for( String pattern : patterns ) {
+            matcher.add( pattern );
+        }
+        Random random = new Random( 42 );
+        char[] chars = { 'a', 'b', '.' };
+        for( int n = 0; n < 1000; n++ ) {
+            StringBuilder text = new StringBuilder();
+            for( int i = random.nextInt( 12 ); i >= 0; i-- ) {
+                text.append( chars[random.nextInt( chars.length )] );
+            }
+            String str = text.toString();
+            SelectorMatcher.Matches matches = matcher.match( str );
+            for( int id = 0; id < patterns.length; id++ ) {
+                String pattern = patterns[id];
+                boolean found = matches != null && matches.contains( id );
+                assertEquals( str + " " + pattern, str.contains( pattern ), found );
+                if( found ) {
+                    assertEquals( str + " " + pattern, str.replace( pattern, "X" ), matches.replace( id, pattern, "X" ) );
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+    private static final Map<String, String> COALESCE = Collections.singletonMap( Less.COALESCE, "true" );
+
+    private static final ReaderFactory       FACTORY  = new ReaderFactory();
+
+    /**
+     * A compile that blocks until it is released.
+     */
+    private static class BlockingCompile implements Supplier<String> {
+
+        private final CountDownLatch started  = new CountDownLatch( 1 );
+
+        private final CountDownLatch released = new CountDownLatch( 1 );
+
+        private final AtomicInteger  count    = new AtomicInteger();
+
+        private final RuntimeException error;
+
+        BlockingCompile( RuntimeException error ) {
+            this.error = error;
+        }
+
+        @Override
+        public String get() {
+            count.incrementAndGet();
+            started.countDown();
+            try {
+                released.await( 10, TimeUnit.SECONDS );
+            } catch( InterruptedException ex ) {
+                throw new LessException( ex );
+            }
+            if( error != null ) {
+                throw error;
+            }
+            return "a{b:c}";
+        }
+    }
+
+    /**
+     * Start a synchronous compile in a new thread.
+     */
+    private static CompletableFuture<String> startThread( String lessData, Map<String, String> options, Supplier<String> compiler ) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Thread thread = new Thread( () -> {
+            try {
+                future.complete( SingleFlight.compile( null, lessData, options, FACTORY, compiler ) );
+            } catch( Throwable th ) {
+                future.completeExceptionally( th );
+            }
+        } );
+        thread.setDaemon( true );
+        thread.start();
+        return future;
+    }
+
+    /**
+     * Start a second caller and wait until it is blocked in the running compile.
+     */
+    private static void startWaitingThread( Map<String, String> options, Supplier<String> compiler, CompletableFuture<String> result ) throws InterruptedException {
+        Thread thread = new Thread( () -> {
+            try {
+                result.complete( SingleFlight.compile( null, "a{b:c}", options, FACTORY, compiler ) );
+            } catch( Throwable th ) {
+                result.completeExceptionally( th );
+            }
+        } );
+        thread.setDaemon( true );
+        thread.start();
+        for( int i = 0; i < 1000 && thread.getState() != Thread.State.WAITING && !result.isDone(); i++ ) {
+            Thread.sleep( 10 );
+        }
+    }
+
+    @Test
+    public void joiner() throws Exception {
+        BlockingCompile compile = new BlockingCompile( null );
+        CompletableFuture<String> owner = startThread( "a{b:c}", COALESCE, compile );
+        assertTrue( compile.started.await( 10, TimeUnit.SECONDS ) );
+
+        CompletableFuture<String> joiner = new CompletableFuture<>();
+        startWaitingThread( COALESCE, () -> {
+            compile.count.incrementAndGet();
+            return "other";
+        }, joiner );
+        compile.released.countDown();
+
+        assertEquals( "a{b:c}", owner.get( 10, TimeUnit.SECONDS ) );
+        assertEquals( "a{b:c}", joiner.get( 10, TimeUnit.SECONDS ) );
+        assertEquals( 1, compile.count.get() );
+    }
+
+    @Test
+    public void notCoalescedWithoutOption() throws Exception {
+        BlockingCompile compile = new BlockingCompile( null );
+        Map<String, String> options = Collections.emptyMap();
+        CompletableFuture<String> owner = startThread( "a{b:c}", options, compile );
+        assertTrue( compile.started.await( 10, TimeUnit.SECONDS ) );
+
+        assertEquals( "other", SingleFlight.compile( null, "a{b:c}", options, FACTORY, () -> "other" ) );
+        compile.released.countDown();
+        assertEquals( "a{b:c}", owner.get( 10, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    public void exceptionPerCaller() throws Exception {
+        LessException error = new LessException( "broken" );
+        error.addPosition( "main.less", 3, 7 );
+        BlockingCompile compile = new BlockingCompile( error );
+        CompletableFuture<String> owner = startThread( "a{b:c}", COALESCE, compile );
+        assertTrue( compile.started.await( 10, TimeUnit.SECONDS ) );
+
+        CompletableFuture<String> joiner = new CompletableFuture<>();
+        startWaitingThread( COALESCE, () -> "other", joiner );
+        compile.released.countDown();
+
+        try {
+            owner.get( 10, TimeUnit.SECONDS );
+            fail( "exception expected" );
+        } catch( ExecutionException ex ) {
+            assertSame( error, ex.getCause() );
+        }
+        try {
+            joiner.get( 10, TimeUnit.SECONDS );
+            fail( "exception expected" );
+        } catch( ExecutionException ex ) {
+            LessException lessEx = (LessException)ex.getCause();
+            assertNotSame( error, lessEx );
+            assertSame( error, lessEx.getCause() );
+            assertEquals( error.getMessage(), lessEx.getMessage() );
+            assertEquals( error.getPositions(), lessEx.getPositions() );
+        }
+    }
+
+    @Test
+    public void nestedOnSameThread() {
+        String css = SingleFlight.compile( null, "a{b:c}", COALESCE, FACTORY, () -> {
+            return SingleFlight.compile( null, "a{b:c}", COALESCE, FACTORY, () -> "inner" );
+        } );
+        assertEquals( "inner", css );
+    }
+
+    @Test
+    public void nestedOnOtherThread() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<String> outer = startThread( "a{b:c}", COALESCE, () -> {
+                try {
+                    return SingleFlight.compileAsync( null, "a{b:c}", COALESCE, FACTORY, () -> "inner", executor ).get( 10, TimeUnit.SECONDS );
+                } catch( Exception ex ) {
+                    throw new LessException( ex );
+                }
+            } );
+            assertEquals( "inner", outer.get( 20, TimeUnit.SECONDS ) );
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * MIT License (MIT)
+ *
+ * Copyright (c) 2026 Volker Berlin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * UT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author Volker Berlin
+ * @license: The MIT license <http://opensource.org/licenses/MIT>
+ */
+package com.inet.lib.less;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class UnitsTest {
+
+    private static final double DELTA = 1e-12;
+
+    @Test
+    public void knownUnits() {
+        CssFormatter formatter = new CssFormatter();
+        assertEquals( Units.NONE, Units.id( "", formatter ) );
+        assertEquals( Units.PERCENT, Units.id( "%", formatter ) );
+        assertEquals( Units.RAD, Units.id( "rad", formatter ) );
+        for( String unit : new String[] { "px", "em", "deg", "ms", "fr" } ) {
+            int id = Units.id( unit, formatter );
+            assertEquals( id, Units.id( unit, new CssFormatter() ) );
+            assertEquals( unit, Units.name( id, formatter ) );
+        }
+        assertTrue( formatter.getUnknownUnits().isEmpty() );
+    }
+
+    @Test
+    public void unknownUnitsPerCompile() {
+        CssFormatter first = new CssFormatter();
+        int foo = Units.id( "foo", first );
+        int bar = Units.id( "bar", first );
+        assertEquals( foo, Units.id( "foo", first ) );
+        assertTrue( foo != bar );
+        assertEquals( "foo", Units.name( foo, first ) );
+        assertEquals( "bar", Units.name( bar, first ) );
+
+        CssFormatter second = new CssFormatter();
+        assertEquals( foo, Units.id( "bar", second ) );
+        assertEquals( "bar", Units.name( foo, second ) );
+    }
+
+    @Test
+    public void factors() {
+        CssFormatter formatter = new CssFormatter();
+        int px = Units.id( "px", formatter );
+        int in = Units.id( "in", formatter );
+        int cm = Units.id( "cm", formatter );
+        int s = Units.id( "s", formatter );
+        int ms = Units.id( "ms", formatter );
+        int deg = Units.id( "deg", formatter );
+        int turn = Units.id( "turn", formatter );
+        assertEquals( 96, Units.factor( in, px, true ), DELTA );
+        assertEquals( 2.54, Units.factor( in, cm, true ), DELTA );
+        assertEquals( 1000, Units.factor( s, ms, true ), DELTA );
+        assertEquals( 360, Units.factor( turn, deg, true ), DELTA );
+        assertEquals( 180 / Math.PI, Units.factor( Units.RAD, deg, true ), DELTA );
+        assertEquals( 1, Units.factor( px, px, true ), DELTA );
+        assertEquals( 1, Units.factor( Units.NONE, px, true ), DELTA );
+        assertEquals( 1, Units.factor( px, Units.NONE, true ), DELTA );
+    }
+
+    @Test
+    public void incompatible() {
+        CssFormatter formatter = new CssFormatter();
+        int px = Units.id( "px", formatter );
+        int s = Units.id( "s", formatter );
+        int em = Units.id( "em", formatter );
+        int foo = Units.id( "foo", formatter );
+        assertEquals( 1, Units.factor( px, s, false ), DELTA );
+        assertEquals( 1, Units.factor( px, em, false ), DELTA );
+        assertEquals( 1, Units.factor( foo, px, false ), DELTA );
+        try {
+            Units.factor( px, s, true );
+            fail( "LessException expected" );
+        } catch( LessException ex ) {
+            // expected
+        }
+        try {
+            Units.factor( foo, px, true );
+            fail( "LessException expected" );
+        } catch( LessException ex ) {
+            // expected
+        }
+    }
+}